@@ -0,0 +1,250 @@
+package com.kentcarmine.restapiconsumerpractice.config;
+
+import com.kentcarmine.restapiconsumerpractice.service.BookCatalogue;
+import com.kentcarmine.restapiconsumerpractice.service.BookService;
+import com.kentcarmine.restapiconsumerpractice.service.BookSnapshots;
+import com.kentcarmine.restapiconsumerpractice.service.BookServiceImpl;
+import com.kentcarmine.restapiconsumerpractice.service.CachingBookService;
+import com.kentcarmine.restapiconsumerpractice.service.CoalescingBookService;
+import com.kentcarmine.restapiconsumerpractice.service.HedgingBookService;
+import com.kentcarmine.restapiconsumerpractice.service.IndexedBookService;
+import com.kentcarmine.restapiconsumerpractice.service.ResilientBookService;
+import com.kentcarmine.restapiconsumerpractice.service.RetryingBookService;
+import com.kentcarmine.restapiconsumerpractice.service.SnapshottingBookService;
+import com.kentcarmine.restapiconsumerpractice.service.StaleOnErrorBookService;
+import com.kentcarmine.restapiconsumerpractice.service.support.BookSnapshotFile;
+import com.kentcarmine.restapiconsumerpractice.service.support.LatencyWindow;
+import com.kentcarmine.restapiconsumerpractice.service.support.RetryBudget;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+// Assembles the BookService used by the controllers by layering optional decorators over BookServiceImpl
+@Configuration
+public class BookServiceConfig {
+
+    @Value("${restapipractice.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${restapipractice.hedging.min_delay_ms:20}")
+    private long hedgingMinDelayMs;
+
+    @Value("${restapipractice.hedging.delay_percentile:0.95}")
+    private double hedgingDelayPercentile;
+
+    @Value("${restapipractice.hedging.max_hedge_ratio:0.05}")
+    private double hedgingMaxHedgeRatio;
+
+    @Value("${restapipractice.hedging.budget_max_tokens:10}")
+    private int hedgingBudgetMaxTokens;
+
+    @Value("${restapipractice.resilience.enabled:false}")
+    private boolean resilienceEnabled;
+
+    @Value("${restapipractice.retry.enabled:false}")
+    private boolean retryEnabled;
+
+    @Value("${restapipractice.retry.max_attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${restapipractice.retry.initial_backoff_ms:50}")
+    private long retryInitialBackoffMs;
+
+    @Value("${restapipractice.retry.max_backoff_ms:1000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${restapipractice.retry.retry_writes:false}")
+    private boolean retryWrites;
+
+    @Value("${restapipractice.retry.budget_ratio:0.1}")
+    private double retryBudgetRatio;
+
+    @Value("${restapipractice.retry.budget_max_tokens:20}")
+    private int retryBudgetMaxTokens;
+
+    @Value("${restapipractice.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+
+    @Value("${restapipractice.coalescing.timeout_ms:5000}")
+    private long coalescingTimeoutMs;
+
+    @Value("${restapipractice.cache.enabled:false}")
+    private boolean cacheEnabled;
+
+    @Value("${restapipractice.cache.max_size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${restapipractice.cache.ttl_ms:30000}")
+    private long cacheTtlMs;
+
+    @Value("${restapipractice.cache.negative_ttl_ms:0}")
+    private long cacheNegativeTtlMs;
+
+    @Value("${restapipractice.stale.enabled:false}")
+    private boolean staleEnabled;
+
+    @Value("${restapipractice.stale.max_size:10000}")
+    private long staleMaxSize;
+
+    @Value("${restapipractice.stale.fresh_ms:0}")
+    private long staleFreshMs;
+
+    @Value("${restapipractice.stale.stale_while_revalidate_ms:0}")
+    private long staleWhileRevalidateMs;
+
+    @Value("${restapipractice.stale.stale_if_error_ms:300000}")
+    private long staleIfErrorMs;
+
+    @Bean
+    @Primary
+    public BookService bookService(BookServiceImpl bookServiceImpl, ObjectProvider<BookCatalogue> bookCatalogue,
+                                   ObjectProvider<BookSnapshots> bookSnapshots,
+                                   CircuitBreakerRegistry upstreamCircuitBreakerRegistry,
+                                   BulkheadRegistry upstreamBulkheadRegistry, ExecutorService hedgingExecutor,
+                                   ExecutorService revalidationExecutor, MeterRegistry meterRegistry) {
+        BookService bookService = bookServiceImpl;
+
+        // Read before any layer is built, so each one can be warmed from the previous run's books as it is added
+        BookSnapshots snapshots = bookSnapshots.getIfAvailable();
+        BookSnapshotFile.Snapshot snapshot = snapshots == null ? null : snapshots.restore();
+        BookCatalogue catalogue = bookCatalogue.getIfAvailable();
+
+        // Inside the circuit breaker so a hedged read counts as one call, and a cancelled loser is never recorded
+        if (hedgingEnabled) {
+            HedgingBookService hedgingBookService = new HedgingBookService(bookService, hedgingExecutor,
+                    hedgingMinDelayMs, new LatencyWindow(1024, hedgingDelayPercentile, 64),
+                    new RetryBudget(hedgingMaxHedgeRatio, hedgingBudgetMaxTokens));
+            FunctionCounter.builder("restapipractice.hedging.hedges", hedgingBookService,
+                            HedgingBookService::getHedgeCount)
+                    .description("Second reads sent because the first was slower than the hedge delay")
+                    .register(meterRegistry);
+            FunctionCounter.builder("restapipractice.hedging.wins", hedgingBookService,
+                            HedgingBookService::getHedgeWinCount)
+                    .description("Hedged reads that answered before the original read")
+                    .register(meterRegistry);
+            Gauge.builder("restapipractice.hedging.delay_ms", hedgingBookService,
+                            HedgingBookService::getHedgeDelayMillis)
+                    .description("Current delay before a read is hedged")
+                    .register(meterRegistry);
+            bookService = hedgingBookService;
+        }
+
+        if (resilienceEnabled) {
+            bookService = new ResilientBookService(bookService, upstreamCircuitBreakerRegistry,
+                    upstreamBulkheadRegistry);
+        }
+
+        // Outside the circuit breaker so every attempt is recorded by it, and an open circuit is not retried
+        if (retryEnabled) {
+            RetryingBookService retryingBookService = new RetryingBookService(bookService, retryMaxAttempts,
+                    retryInitialBackoffMs, retryMaxBackoffMs, retryWrites,
+                    new RetryBudget(retryBudgetRatio, retryBudgetMaxTokens));
+            FunctionCounter.builder("restapipractice.retry.attempts", retryingBookService,
+                            RetryingBookService::getRetryCount)
+                    .description("Upstream calls retried after a transient failure")
+                    .register(meterRegistry);
+            FunctionCounter.builder("restapipractice.retry.recovered", retryingBookService,
+                            RetryingBookService::getRecoveredCount)
+                    .description("Upstream calls that failed at first but succeeded on a retry")
+                    .register(meterRegistry);
+            FunctionCounter.builder("restapipractice.retry.budget_exhausted", retryingBookService,
+                            RetryingBookService::getBudgetExhaustedCount)
+                    .description("Retries skipped because the retry budget was spent")
+                    .register(meterRegistry);
+            Gauge.builder("restapipractice.retry.budget_balance", retryingBookService.getRetryBudget(),
+                            RetryBudget::getBalance)
+                    .description("Retries currently available in the retry budget")
+                    .register(meterRegistry);
+            bookService = retryingBookService;
+        }
+
+        if (coalescingEnabled) {
+            CoalescingBookService coalescingBookService = new CoalescingBookService(bookService, coalescingTimeoutMs);
+            Gauge.builder("restapipractice.coalescing.in_flight", coalescingBookService,
+                            CoalescingBookService::getInFlightCount)
+                    .description("Distinct upstream reads currently in flight")
+                    .register(meterRegistry);
+            Gauge.builder("restapipractice.coalescing.waiters", coalescingBookService,
+                            CoalescingBookService::getWaiterCount)
+                    .description("Callers currently waiting on another caller's upstream read")
+                    .register(meterRegistry);
+            FunctionCounter.builder("restapipractice.coalescing.coalesced", coalescingBookService,
+                            CoalescingBookService::getCoalescedCount)
+                    .description("Reads answered by sharing an in-flight upstream request")
+                    .register(meterRegistry);
+            bookService = coalescingBookService;
+        }
+
+        // Revalidations of the last-known-good store skip the cache, or they would only ever see the cached copy
+        BookService uncached = bookService;
+        if (cacheEnabled) {
+            CachingBookService cachingBookService = new CachingBookService(bookService, cacheMaxSize,
+                    Duration.ofMillis(cacheTtlMs), Duration.ofMillis(cacheNegativeTtlMs));
+            CaffeineCacheMetrics.monitor(meterRegistry, cachingBookService.getBookCache(), "books");
+            if (cachingBookService.getNotFoundCache() != null) {
+                CaffeineCacheMetrics.monitor(meterRegistry, cachingBookService.getNotFoundCache(), "booksNotFound");
+            }
+            bookService = cachingBookService;
+        }
+
+        // Outside the cache and coalescing so every caller of a stale read, not just the one that triggered the
+        // upstream call, has its response marked stale
+        if (staleEnabled) {
+            StaleOnErrorBookService staleOnErrorBookService = new StaleOnErrorBookService(bookService, uncached,
+                    revalidationExecutor, staleMaxSize, staleFreshMs, staleWhileRevalidateMs, staleIfErrorMs);
+            // The snapshot only warms this store, which keeps its age; the cache would serve it as fresh
+            if (snapshot != null) {
+                staleOnErrorBookService.warm(snapshot, snapshots.getMaxAgeMs());
+            }
+            FunctionCounter.builder("restapipractice.stale.served_on_error", staleOnErrorBookService,
+                            StaleOnErrorBookService::getServedOnErrorCount)
+                    .description("Reads answered from the last-known-good store because the upstream failed")
+                    .register(meterRegistry);
+            FunctionCounter.builder("restapipractice.stale.served_while_revalidating", staleOnErrorBookService,
+                            StaleOnErrorBookService::getServedWhileRevalidatingCount)
+                    .description("Reads answered from the last-known-good store while it was refreshed")
+                    .register(meterRegistry);
+            FunctionCounter.builder("restapipractice.stale.refresh_failures", staleOnErrorBookService,
+                            StaleOnErrorBookService::getRefreshFailureCount)
+                    .description("Background refreshes of the last-known-good store that failed")
+                    .register(meterRegistry);
+            Gauge.builder("restapipractice.stale.store_size", staleOnErrorBookService,
+                            StaleOnErrorBookService::getStoreSize)
+                    .description("Reads held in the last-known-good store")
+                    .register(meterRegistry);
+            bookService = staleOnErrorBookService;
+        }
+
+        // With the catalogue enabled the snapshot is taken from it; otherwise the books served here are recorded
+        if (snapshots != null && catalogue == null) {
+            bookService = new SnapshottingBookService(bookService, snapshots);
+        }
+
+        if (catalogue != null) {
+            if (snapshot != null && snapshot.isComplete()) {
+                catalogue.restore(snapshot.getBooks(), snapshot.getTakenAtMillis());
+            }
+            Gauge.builder("restapipractice.index.size", catalogue, BookCatalogue::size)
+                    .description("Books held in the local catalogue")
+                    .register(meterRegistry);
+            Gauge.builder("restapipractice.index.age_seconds", catalogue,
+                            c -> c.isLoaded() ? (System.currentTimeMillis() - c.getLastRefreshMillis()) / 1000.0 : -1)
+                    .description("Seconds since the local catalogue last completed a refresh, or -1 before the first")
+                    .register(meterRegistry);
+            bookService = new IndexedBookService(bookService, catalogue);
+        }
+
+        return bookService;
+    }
+}
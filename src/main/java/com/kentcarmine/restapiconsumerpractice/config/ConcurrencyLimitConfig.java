@@ -0,0 +1,24 @@
+package com.kentcarmine.restapiconsumerpractice.config;
+
+import com.kentcarmine.restapiconsumerpractice.controller.ConcurrencyLimitInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Adaptive per-endpoint concurrency limits on the proxy endpoints; actuator endpoints are never shed
+@Configuration
+@ConditionalOnProperty(name = "restapipractice.concurrency_limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+    public ConcurrencyLimitConfig(ConcurrencyLimitInterceptor concurrencyLimitInterceptor) {
+        this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(concurrencyLimitInterceptor).addPathPatterns("/proxy/**");
+    }
+}
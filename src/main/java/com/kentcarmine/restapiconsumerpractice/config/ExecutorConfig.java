@@ -0,0 +1,51 @@
+package com.kentcarmine.restapiconsumerpractice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Runs upstream calls fanned out from a single proxy request (batch reads, bulk writes)
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService upstreamExecutor(
+            @Value("${restapipractice.virtual_threads.enabled:false}") boolean virtualThreadsEnabled,
+            @Value("${restapipractice.executor.max_threads:64}") int maxThreads) {
+        if (virtualThreadsEnabled) {
+            return VirtualThreads.newVirtualThreadPerTaskExecutor();
+        }
+        return Executors.newFixedThreadPool(maxThreads, new CustomizableThreadFactory("upstream-"));
+    }
+
+    // Runs hedged reads. Kept apart from upstreamExecutor because batch reads already run on that pool, and a
+    // fixed pool waiting on tasks queued behind itself could starve. Concurrency is bounded by the callers.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService hedgingExecutor(
+            @Value("${restapipractice.virtual_threads.enabled:false}") boolean virtualThreadsEnabled) {
+        if (virtualThreadsEnabled) {
+            return VirtualThreads.newVirtualThreadPerTaskExecutor();
+        }
+        return Executors.newCachedThreadPool(new CustomizableThreadFactory("hedge-"));
+    }
+
+    // Runs background refreshes of stale reads. At most one refresh per key is in flight, so a small pool is enough
+    // and keeps a slow upstream from tying up more threads; refreshes that can't be queued are read inline instead.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService revalidationExecutor(
+            @Value("${restapipractice.virtual_threads.enabled:false}") boolean virtualThreadsEnabled,
+            @Value("${restapipractice.stale.refresh_threads:4}") int refreshThreads) {
+        if (virtualThreadsEnabled) {
+            return VirtualThreads.newVirtualThreadPerTaskExecutor();
+        }
+        return new ThreadPoolExecutor(refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshThreads * 16), new CustomizableThreadFactory("revalidate-"));
+    }
+}
@@ -1,8 +1,11 @@
 package com.kentcarmine.restapiconsumerpractice.config;
 
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamBalancer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
@@ -14,7 +17,14 @@ public class GeneralConfig {
     }
 
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder) {
-        return restTemplateBuilder.build();
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder,
+                                     ClientHttpRequestFactory upstreamRequestFactory,
+                                     ObjectProvider<UpstreamBalancer> upstreamBalancer) {
+        RestTemplateBuilder builder = restTemplateBuilder.requestFactory(() -> upstreamRequestFactory);
+        UpstreamBalancer balancer = upstreamBalancer.getIfAvailable();
+        if (balancer != null) {
+            builder = builder.additionalInterceptors(balancer.requestInterceptor());
+        }
+        return builder.build();
     }
 }
@@ -0,0 +1,93 @@
+package com.kentcarmine.restapiconsumerpractice.config;
+
+import com.kentcarmine.restapiconsumerpractice.service.support.CompressionMetrics;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.cache.CacheConfig;
+import org.apache.http.impl.client.cache.CachingHttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager upstreamConnectionManager(
+            @Value("${restapipractice.http.max_connections_total:200}") int maxConnectionsTotal,
+            @Value("${restapipractice.http.max_connections_per_route:50}") int maxConnectionsPerRoute) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnectionsTotal);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setValidateAfterInactivity(2000);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient upstreamHttpClient(
+            PoolingHttpClientConnectionManager upstreamConnectionManager,
+            CompressionMetrics compressionMetrics,
+            @Value("${restapipractice.http.keep_alive_ms:30000}") long keepAliveMs,
+            @Value("${restapipractice.http.idle_eviction_ms:60000}") long idleEvictionMs,
+            @Value("${restapipractice.http.connect_timeout_ms:2000}") int connectTimeoutMs,
+            @Value("${restapipractice.http.read_timeout_ms:5000}") int readTimeoutMs,
+            @Value("${restapipractice.http.connection_request_timeout_ms:1000}") int connectionRequestTimeoutMs,
+            @Value("${restapipractice.http.cache.enabled:false}") boolean cacheEnabled,
+            @Value("${restapipractice.http.cache.max_entries:1000}") int cacheMaxEntries,
+            @Value("${restapipractice.http.cache.max_object_bytes:1048576}") long cacheMaxObjectBytes,
+            @Value("${restapipractice.http.compression.enabled:true}") boolean compressionEnabled) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+                .build();
+
+        // The caching client keeps upstream responses that carry validators and revalidates them with
+        // If-None-Match / If-Modified-Since, so an unchanged resource comes back as a bodiless 304
+        HttpClientBuilder builder = cacheEnabled
+                ? CachingHttpClients.custom().setCacheConfig(CacheConfig.custom()
+                        .setMaxCacheEntries(cacheMaxEntries)
+                        .setMaxObjectSize(cacheMaxObjectBytes)
+                        .setSharedCache(false)
+                        .build())
+                : HttpClients.custom();
+
+        // HttpClient sends Accept-Encoding: gzip,deflate and decodes the response itself unless this is disabled
+        if (compressionEnabled) {
+            builder.addInterceptorFirst(UpstreamCompressionMetering.beforeDecoding())
+                    .addInterceptorLast(UpstreamCompressionMetering.afterDecoding(compressionMetrics));
+        } else {
+            builder.disableContentCompression();
+        }
+
+        return builder
+                .setConnectionManager(upstreamConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(keepAliveMs))
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEvictionMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory upstreamRequestFactory(CloseableHttpClient upstreamHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(upstreamHttpClient);
+    }
+
+    // Honour the server's Keep-Alive header when present, otherwise fall back to the configured value
+    private ConnectionKeepAliveStrategy keepAliveStrategy(long keepAliveMs) {
+        return (response, context) -> {
+            long serverKeepAliveMs = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAliveMs > 0 ? serverKeepAliveMs : keepAliveMs;
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.kentcarmine.restapiconsumerpractice.config;
+
+import com.kentcarmine.restapiconsumerpractice.service.ResilientBookService;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// Circuit breaker and bulkhead settings shared by every upstream operation; each operation gets its own instances
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    public CircuitBreakerRegistry upstreamCircuitBreakerRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${restapipractice.resilience.failure_rate_threshold:50}") float failureRateThreshold,
+            @Value("${restapipractice.resilience.slow_call_rate_threshold:80}") float slowCallRateThreshold,
+            @Value("${restapipractice.resilience.slow_call_ms:2000}") long slowCallMs,
+            @Value("${restapipractice.resilience.sliding_window_size:50}") int slidingWindowSize,
+            @Value("${restapipractice.resilience.minimum_calls:20}") int minimumCalls,
+            @Value("${restapipractice.resilience.open_ms:10000}") long openMs,
+            @Value("${restapipractice.resilience.half_open_calls:5}") int halfOpenCalls) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallMs))
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(Duration.ofMillis(openMs))
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(ResilientBookService::isUpstreamFailure)
+                .ignoreExceptions(BulkheadFullException.class)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry upstreamBulkheadRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${restapipractice.resilience.max_concurrent_calls:50}") int maxConcurrentCalls,
+            @Value("${restapipractice.resilience.max_wait_ms:0}") long maxWaitMs) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ofMillis(maxWaitMs))
+                .build();
+
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+}
@@ -0,0 +1,26 @@
+package com.kentcarmine.restapiconsumerpractice.config;
+
+import com.kentcarmine.restapiconsumerpractice.service.support.BalancingStrategy;
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamBalancer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+// Upstream URLs keep pointing at restapipractice.root_url; the balancer swaps that root for one of the instances
+@Configuration
+@ConditionalOnProperty(name = "restapipractice.balancing.enabled", havingValue = "true")
+public class UpstreamBalancingConfig {
+
+    @Bean
+    public UpstreamBalancer upstreamBalancer(
+            @Value("${restapipractice.root_url}") String rootUrl,
+            @Value("${restapipractice.balancing.instance_urls}") String[] instanceUrls,
+            @Value("${restapipractice.balancing.strategy:EWMA}") BalancingStrategy strategy,
+            @Value("${restapipractice.balancing.failure_threshold:5}") int failureThreshold,
+            @Value("${restapipractice.balancing.ejection_ms:10000}") long ejectionMs) {
+        return new UpstreamBalancer(rootUrl, Arrays.asList(instanceUrls), strategy, failureThreshold, ejectionMs);
+    }
+}
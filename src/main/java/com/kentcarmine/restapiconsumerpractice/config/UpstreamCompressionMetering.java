@@ -0,0 +1,112 @@
+package com.kentcarmine.restapiconsumerpractice.config;
+
+import com.kentcarmine.restapiconsumerpractice.service.support.CompressionMetrics;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+// Meters gzip and deflate upstream responses around HttpClient's own decoding. The interceptor added first sees the
+// encoded body and counts wire bytes; the one added last sees the decoded body and counts decoded bytes. Decoding CPU
+// is the time spent reading the decoded stream less the time spent in the wire stream underneath it.
+final class UpstreamCompressionMetering {
+
+    private static final String WIRE_ATTRIBUTE = UpstreamCompressionMetering.class.getName() + ".wire";
+
+    private UpstreamCompressionMetering() {
+    }
+
+    static HttpResponseInterceptor beforeDecoding() {
+        return (response, context) -> {
+            HttpEntity entity = response.getEntity();
+            Header contentEncoding = entity == null ? null : entity.getContentEncoding();
+            if (contentEncoding == null || !isDecodedByHttpClient(contentEncoding.getValue())) {
+                return;
+            }
+            MeteredEntity wire = new MeteredEntity(entity, null);
+            response.setEntity(wire);
+            context.setAttribute(WIRE_ATTRIBUTE, wire);
+        };
+    }
+
+    static HttpResponseInterceptor afterDecoding(CompressionMetrics compressionMetrics) {
+        return (response, context) -> {
+            Object attribute = context.getAttribute(WIRE_ATTRIBUTE);
+            if (!(attribute instanceof MeteredEntity) || response.getEntity() == null) {
+                return;
+            }
+            context.removeAttribute(WIRE_ATTRIBUTE);
+            MeteredEntity wire = (MeteredEntity) attribute;
+            response.setEntity(new MeteredEntity(response.getEntity(), decoded -> compressionMetrics.recordUpstream(
+                    decoded.bytes, wire.bytes, Math.max(0, decoded.cpuNanos - wire.cpuNanos))));
+        };
+    }
+
+    private static boolean isDecodedByHttpClient(String contentEncoding) {
+        String coding = contentEncoding.trim().toLowerCase();
+        return coding.equals("gzip") || coding.equals("x-gzip") || coding.equals("deflate");
+    }
+
+    private static final class MeteredEntity extends HttpEntityWrapper {
+
+        private final Consumer<MeteredEntity> onDone;
+        private long bytes;
+        private long cpuNanos;
+        private boolean done;
+
+        MeteredEntity(HttpEntity wrappedEntity, Consumer<MeteredEntity> onDone) {
+            super(wrappedEntity);
+            this.onDone = onDone;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    long start = CompressionMetrics.cpuNanos();
+                    int b = super.read();
+                    count(b < 0 ? -1 : 1, start);
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    long start = CompressionMetrics.cpuNanos();
+                    int read = super.read(b, off, len);
+                    count(read, start);
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    done();
+                }
+            };
+        }
+
+        private void count(int read, long startCpuNanos) {
+            cpuNanos += CompressionMetrics.cpuNanos() - startCpuNanos;
+            if (read < 0) {
+                done();
+            } else {
+                bytes += read;
+            }
+        }
+
+        private void done() {
+            if (!done) {
+                done = true;
+                if (onDone != null) {
+                    onDone.accept(this);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.kentcarmine.restapiconsumerpractice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+// Exposes the upstream connection pool at /actuator/metrics/restapipractice.upstream.pool.*
+@Component
+public class UpstreamPoolMetrics implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "restapipractice.upstream.pool.";
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    public UpstreamPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, "leased", "Pooled connections currently in use", PoolStats::getLeased);
+        register(registry, "idle", "Pooled connections open and available for reuse", PoolStats::getAvailable);
+        register(registry, "pending", "Requests waiting for a pooled connection", PoolStats::getPending);
+        register(registry, "max", "Maximum pooled connections", PoolStats::getMax);
+    }
+
+    private void register(MeterRegistry registry, String name, String description,
+                          ToDoubleFunction<PoolStats> statExtractor) {
+        Gauge.builder(METRIC_PREFIX + name, connectionManager,
+                        cm -> statExtractor.applyAsDouble(cm.getTotalStats()))
+                .description(description)
+                .register(registry);
+    }
+}
@@ -0,0 +1,59 @@
+package com.kentcarmine.restapiconsumerpractice.config;
+
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamBalancer;
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamTimers;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "restapipractice.reactive.enabled", havingValue = "true")
+public class WebClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider upstreamConnectionProvider(
+            @Value("${restapipractice.http.max_connections_per_route:50}") int maxConnections,
+            @Value("${restapipractice.reactive.max_pending_acquires:10000}") int maxPendingAcquires,
+            @Value("${restapipractice.http.keep_alive_ms:30000}") long keepAliveMs,
+            @Value("${restapipractice.http.idle_eviction_ms:60000}") long idleEvictionMs,
+            @Value("${restapipractice.http.connection_request_timeout_ms:1000}") long connectionRequestTimeoutMs) {
+        return ConnectionProvider.builder("upstream")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxPendingAcquires)
+                .pendingAcquireTimeout(Duration.ofMillis(connectionRequestTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(keepAliveMs))
+                .evictInBackground(Duration.ofMillis(idleEvictionMs))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient upstreamWebClient(
+            ConnectionProvider upstreamConnectionProvider,
+            UpstreamTimers upstreamTimers,
+            ObjectProvider<UpstreamBalancer> upstreamBalancer,
+            @Value("${restapipractice.http.connect_timeout_ms:2000}") int connectTimeoutMs,
+            @Value("${restapipractice.http.read_timeout_ms:5000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.create(upstreamConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+
+        WebClient.Builder builder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(upstreamTimers.exchangeFilter());
+        UpstreamBalancer balancer = upstreamBalancer.getIfAvailable();
+        if (balancer != null) {
+            builder = builder.filter(balancer.exchangeFilter());
+        }
+        return builder.build();
+    }
+}
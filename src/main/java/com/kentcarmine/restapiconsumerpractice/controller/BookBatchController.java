@@ -0,0 +1,45 @@
+package com.kentcarmine.restapiconsumerpractice.controller;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookBatchItemDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookBatchRequestDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookBulkRequestDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookBulkResultDto;
+import com.kentcarmine.restapiconsumerpractice.service.BookBatchService;
+import com.kentcarmine.restapiconsumerpractice.service.BookBulkService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/proxy/api/v1/books")
+public class BookBatchController {
+
+    private final BookBatchService bookBatchService;
+    private final BookBulkService bookBulkService;
+
+    @Autowired
+    public BookBatchController(BookBatchService bookBatchService, BookBulkService bookBulkService) {
+        this.bookBatchService = bookBatchService;
+        this.bookBulkService = bookBulkService;
+    }
+
+    // List many books by id in one round trip, with a result per distinct id
+    @PostMapping("/batch")
+    public List<BookBatchItemDto> getBooksByIds(@Valid @RequestBody BookBatchRequestDto batchRequest) {
+        return bookBatchService.getBooksByIds(batchRequest.getIds());
+    }
+
+    // List many books by id in one round trip, e.g. /batch?ids=1,2,3
+    @GetMapping("/batch")
+    public List<BookBatchItemDto> getBooksByIds(@RequestParam List<Long> ids) {
+        return bookBatchService.getBooksByIds(ids);
+    }
+
+    // Create, update and delete many books in one request, with a result per operation in request order
+    @PostMapping("/bulk")
+    public List<BookBulkResultDto> executeBulk(@Valid @RequestBody BookBulkRequestDto bulkRequest) {
+        return bookBulkService.execute(bulkRequest.getOperations());
+    }
+}
@@ -2,48 +2,101 @@ package com.kentcarmine.restapiconsumerpractice.controller;
 
 
 import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookPageDto;
 import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.service.BookPageService;
 import com.kentcarmine.restapiconsumerpractice.service.BookService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.Set;
 
 @RestController
+@ConditionalOnProperty(name = "restapipractice.reactive.enabled", havingValue = "false", matchIfMissing = true)
 @RequestMapping("/proxy/api/v1/books")
 public class BookController {
 
     private final BookService bookService;
+    private final BookPageService bookPageService;
+    private final BookStreamWriter bookStreamWriter;
+    private final ConditionalResponses conditionalResponses;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookPageService bookPageService,
+                          BookStreamWriter bookStreamWriter, ConditionalResponses conditionalResponses) {
         this.bookService = bookService;
+        this.bookPageService = bookPageService;
+        this.bookStreamWriter = bookStreamWriter;
+        this.conditionalResponses = conditionalResponses;
     }
 
     // List one book by id
     @GetMapping("/{id}")
-    public BookDto getBookById(@PathVariable Long id) {
-        return bookService.getBookById(id);
+    public ResponseEntity<BookDto> getBookById(@PathVariable Long id) {
+        return conditionalResponses.ok(bookService.getBookById(id));
     }
 
     // List all books
     @GetMapping({"", "/"})
-    public Set<BookDto> getAllBooks() {
-        return bookService.getAllBooks();
+    public ResponseEntity<Set<BookDto>> getAllBooks() {
+        return conditionalResponses.ok(bookService.getAllBooks());
+    }
+
+    // List one page of all books, by page number or by the cursor returned with the previous page
+    @GetMapping(value = {"", "/"}, params = "size")
+    public BookPageDto getAllBooksPage(@RequestParam int size,
+                                       @RequestParam(required = false) Integer page,
+                                       @RequestParam(required = false) String cursor) {
+        return bookPageService.getAllBooks(page, size, cursor);
+    }
+
+    // Stream all books as they arrive from the backing API: NDJSON by default, a JSON array for Accept: application/json
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamAllBooks(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean jsonArray = accept != null && accept.contains(MediaType.APPLICATION_JSON_VALUE)
+                && !accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        MediaType contentType = jsonArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON;
+
+        StreamingResponseBody body = out -> bookStreamWriter.write(out, jsonArray, bookService::streamAllBooks);
+        return ResponseEntity.ok().contentType(contentType).body(body);
     }
 
     // List all books by title
     @GetMapping("/title/{bookTitle}")
-    public Set<BookDto> getAllBooksByTitle(@PathVariable String bookTitle) {
-        return bookService.getAllBooksByTitle(bookTitle);
+    public ResponseEntity<Set<BookDto>> getAllBooksByTitle(@PathVariable String bookTitle) {
+        return conditionalResponses.ok(bookService.getAllBooksByTitle(bookTitle));
+    }
+
+    // List one page of books by title
+    @GetMapping(value = "/title/{bookTitle}", params = "size")
+    public BookPageDto getAllBooksByTitlePage(@PathVariable String bookTitle,
+                                              @RequestParam int size,
+                                              @RequestParam(required = false) Integer page,
+                                              @RequestParam(required = false) String cursor) {
+        return bookPageService.getAllBooksByTitle(bookTitle, page, size, cursor);
     }
 
     // List all books by author
     @GetMapping("/author/{bookAuthor}")
-    public Set<BookDto> getAllBooksByAuthor(@PathVariable String bookAuthor) {
-        return bookService.getAllBooksByAuthor(bookAuthor);
+    public ResponseEntity<Set<BookDto>> getAllBooksByAuthor(@PathVariable String bookAuthor) {
+        return conditionalResponses.ok(bookService.getAllBooksByAuthor(bookAuthor));
+    }
+
+    // List one page of books by author
+    @GetMapping(value = "/author/{bookAuthor}", params = "size")
+    public BookPageDto getAllBooksByAuthorPage(@PathVariable String bookAuthor,
+                                               @RequestParam int size,
+                                               @RequestParam(required = false) Integer page,
+                                               @RequestParam(required = false) String cursor) {
+        return bookPageService.getAllBooksByAuthor(bookAuthor, page, size, cursor);
     }
 
     // Create book
@@ -0,0 +1,31 @@
+package com.kentcarmine.restapiconsumerpractice.controller;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookSearchMode;
+import com.kentcarmine.restapiconsumerpractice.service.BookCatalogue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/proxy/api/v1/books")
+@ConditionalOnProperty(name = "restapipractice.index.enabled", havingValue = "true")
+public class BookSearchController {
+
+    private final BookCatalogue bookCatalogue;
+
+    @Autowired
+    public BookSearchController(BookCatalogue bookCatalogue) {
+        this.bookCatalogue = bookCatalogue;
+    }
+
+    // Search the local catalogue by title and/or author, e.g. /search?title=dune&mode=PREFIX
+    @GetMapping("/search")
+    public Set<BookDto> searchBooks(@RequestParam(required = false) String title,
+                                    @RequestParam(required = false) String author,
+                                    @RequestParam(defaultValue = "TOKEN") BookSearchMode mode) {
+        return bookCatalogue.search(title, author, mode);
+    }
+}
@@ -0,0 +1,61 @@
+package com.kentcarmine.restapiconsumerpractice.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+// Writes books to a response body one at a time, either as NDJSON or as a single JSON array
+@Component
+public class BookStreamWriter {
+
+    private static final int FLUSH_EVERY = 100;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter bookWriter;
+
+    public BookStreamWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.bookWriter = objectMapper.writerFor(BookDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void write(OutputStream out, boolean jsonArray, Consumer<Consumer<BookDto>> bookSource) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            if (jsonArray) {
+                generator.writeStartArray();
+            }
+
+            int[] written = {0};
+            bookSource.accept(book -> {
+                try {
+                    bookWriter.writeValue(generator, book);
+                    if (!jsonArray) {
+                        generator.writeRaw('\n');
+                    }
+                    // flush the first book immediately for time-to-first-byte, then in batches
+                    if (written[0]++ % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            if (jsonArray) {
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.kentcarmine.restapiconsumerpractice.controller;
+
+import com.kentcarmine.restapiconsumerpractice.exception.OverloadedException;
+import com.kentcarmine.restapiconsumerpractice.service.support.AimdConcurrencyLimit;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sheds load per endpoint (method and path pattern) with an AimdConcurrencyLimit each: a request over its endpoint's
+// limit fails fast with OverloadedException instead of queueing. An admitted request holds its slot until it
+// completes, including the async part of streamed and reactive responses, and its latency then adjusts the limit.
+// A 503 or 504 from the request itself counts as overload, as the upstream behind it is struggling.
+//
+// Streamed bodies (StreamingResponseBody, ResponseBodyEmitter) are written at the pace the client reads them, so
+// their endpoints judge latency against streamingLatencyThresholdMs, set for the slowest download worth serving,
+// rather than latencyThresholdMs; the upstream's own wait before the first book is guarded by ResilientBookService.
+@Component
+@ConditionalOnProperty(name = "restapipractice.concurrency_limit.enabled", havingValue = "true")
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdMs;
+    private final long streamingLatencyThresholdMs;
+    private final double backoffRatio;
+    private final long retryAfterSeconds;
+    private final Map<String, AimdConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitInterceptor(
+            MeterRegistry meterRegistry,
+            @Value("${restapipractice.concurrency_limit.initial_limit:20}") int initialLimit,
+            @Value("${restapipractice.concurrency_limit.min_limit:4}") int minLimit,
+            @Value("${restapipractice.concurrency_limit.max_limit:200}") int maxLimit,
+            @Value("${restapipractice.concurrency_limit.latency_threshold_ms:500}") long latencyThresholdMs,
+            @Value("${restapipractice.concurrency_limit.streaming_latency_threshold_ms:60000}")
+            long streamingLatencyThresholdMs,
+            @Value("${restapipractice.concurrency_limit.backoff_ratio:0.9}") double backoffRatio,
+            @Value("${restapipractice.concurrency_limit.retry_after_s:1}") long retryAfterSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdMs = latencyThresholdMs;
+        this.streamingLatencyThresholdMs = streamingLatencyThresholdMs;
+        this.backoffRatio = backoffRatio;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public AimdConcurrencyLimit getLimit(String endpoint) {
+        return limits.get(endpoint);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The async dispatch of a request that was already admitted runs the interceptors again
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        String endpoint = endpoint(request);
+        AimdConcurrencyLimit limit = limits.computeIfAbsent(endpoint, key -> newLimit(key, isStreamed(handler)));
+        int inFlight = limit.tryAcquire();
+        if (inFlight < 0) {
+            throw new OverloadedException(endpoint, retryAfterSeconds);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(limit, inFlight, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        Object attribute = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (attribute instanceof Permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            Permit permit = (Permit) attribute;
+            int status = response.getStatus();
+            permit.limit.release(System.nanoTime() - permit.startNanos, permit.inFlight,
+                    status == HttpStatus.SERVICE_UNAVAILABLE.value() || status == HttpStatus.GATEWAY_TIMEOUT.value());
+        }
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    private static boolean isStreamed(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return false;
+        }
+        MethodParameter returnType = ((HandlerMethod) handler).getReturnType();
+        Class<?> type = returnType.getParameterType();
+        if (ResponseEntity.class.isAssignableFrom(type)) {
+            type = ResolvableType.forMethodParameter(returnType).getGeneric(0).resolve(Object.class);
+        }
+        return StreamingResponseBody.class.isAssignableFrom(type) || ResponseBodyEmitter.class.isAssignableFrom(type);
+    }
+
+    private AimdConcurrencyLimit newLimit(String endpoint, boolean streamed) {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(initialLimit, minLimit, maxLimit,
+                streamed ? streamingLatencyThresholdMs : latencyThresholdMs, backoffRatio);
+        Gauge.builder("restapipractice.concurrency_limit.limit", limit, AimdConcurrencyLimit::getLimit)
+                .description("Current concurrency limit of the endpoint")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("restapipractice.concurrency_limit.in_flight", limit, AimdConcurrencyLimit::getInFlight)
+                .description("Requests to the endpoint currently being handled")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        FunctionCounter.builder("restapipractice.concurrency_limit.shed", limit, AimdConcurrencyLimit::getShedCount)
+                .description("Requests to the endpoint refused because it was at its limit")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return limit;
+    }
+
+    private static final class Permit {
+
+        private final AimdConcurrencyLimit limit;
+        private final int inFlight;
+        private final long startNanos;
+
+        Permit(AimdConcurrencyLimit limit, int inFlight, long startNanos) {
+            this.limit = limit;
+            this.inFlight = inFlight;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.kentcarmine.restapiconsumerpractice.controller;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.service.support.Staleness;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Builds read responses with Cache-Control and a weak ETag. The ETag is computed from the books themselves rather
+// than the serialized body, so Spring can answer a matching If-None-Match with 304 before serializing anything. Smile
+// and CBOR bodies get their own ETag suffix, so a cache holding several variants of a response, which varies on
+// Accept, never matches one format's ETag to another's bytes. Bodies served from the last-known-good store carry Age
+// and a Warning saying whether they are a fallback or being refreshed.
+@Component
+public class ConditionalResponses {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+    private static final String REVALIDATION_FAILED_WARNING = "111 - \"Revalidation Failed\"";
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+
+    private final CacheControl cacheControl;
+
+    public ConditionalResponses(@Value("${restapipractice.cache_control.max_age_s:0}") long maxAgeSeconds) {
+        this.cacheControl = maxAgeSeconds > 0 ? CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS)
+                : CacheControl.noCache();
+    }
+
+    public ResponseEntity<BookDto> ok(BookDto book) {
+        return ok(book, book == null ? null : eTag(hash(book)));
+    }
+
+    // Per-book hashes are summed, so the ETag does not depend on the order the upstream listed the books in
+    public <C extends Collection<BookDto>> ResponseEntity<C> ok(C books) {
+        if (books == null) {
+            return ok(null, null);
+        }
+        long combined = books.size();
+        for (BookDto book : books) {
+            combined += hash(book) * FNV_PRIME;
+        }
+        return ok(books, eTag(combined));
+    }
+
+    private <T> ResponseEntity<T> ok(T body, String eTag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (eTag != null) {
+            builder.eTag(eTag);
+        }
+        Staleness staleness = Staleness.current();
+        if (staleness != null) {
+            builder.header(HttpHeaders.AGE, Long.toString(staleness.getAgeMillis() / 1000))
+                    .header(HttpHeaders.WARNING,
+                            staleness.isRevalidationFailed() ? REVALIDATION_FAILED_WARNING : STALE_WARNING);
+        }
+        return builder.body(body);
+    }
+
+    private static String eTag(long hash) {
+        return "W/\"" + Long.toHexString(hash) + formatSuffix() + '"';
+    }
+
+    // The format Spring will pick for this request's Accept header, most specific and preferred first; wildcards
+    // and JSON go to the JSON converter, which comes first
+    private static String formatSuffix() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        String accept = attributes instanceof ServletRequestAttributes
+                ? ((ServletRequestAttributes) attributes).getRequest().getHeader(HttpHeaders.ACCEPT) : null;
+        if (accept == null) {
+            return "";
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "";
+            } else if (mediaType.isCompatibleWith(SMILE)) {
+                return "-smile";
+            } else if (mediaType.isCompatibleWith(CBOR)) {
+                return "-cbor";
+            }
+        }
+        return "";
+    }
+
+    // 64-bit FNV-1a over the book's fields, each followed by a separator so ("ab", "c") and ("a", "bc") differ
+    private static long hash(BookDto book) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, String.valueOf(book.getId()));
+        hash = hash(hash, book.getTitle());
+        return hash(hash, book.getAuthor());
+    }
+
+    private static long hash(long hash, String value) {
+        if (value != null) {
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+            }
+        }
+        return (hash ^ (value == null ? 0x01 : 0x00)) * FNV_PRIME;
+    }
+}
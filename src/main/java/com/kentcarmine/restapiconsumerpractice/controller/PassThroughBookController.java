@@ -0,0 +1,63 @@
+package com.kentcarmine.restapiconsumerpractice.controller;
+
+import com.kentcarmine.restapiconsumerpractice.service.PassThroughBookService;
+import com.kentcarmine.restapiconsumerpractice.service.UpstreamBodyHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// The read endpoints of BookController, answered by copying the upstream response straight into the client's
+// response: no BookDto is built and nothing is re-serialized, at the cost of the cache, fallback and content
+// negotiation layers, which all need the books themselves
+@RestController
+@ConditionalOnProperty(name = "restapipractice.passthrough.enabled", havingValue = "true")
+@RequestMapping("/proxy/raw/api/v1/books")
+public class PassThroughBookController {
+
+    private final PassThroughBookService passThroughBookService;
+
+    public PassThroughBookController(PassThroughBookService passThroughBookService) {
+        this.passThroughBookService = passThroughBookService;
+    }
+
+    // List one book by id
+    @GetMapping("/{id}")
+    public void getBookById(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        passThroughBookService.getBookById(id, copyTo(response));
+    }
+
+    // List all books
+    @GetMapping({"", "/"})
+    public void getAllBooks(HttpServletResponse response) throws IOException {
+        passThroughBookService.getAllBooks(copyTo(response));
+    }
+
+    // List all books by title
+    @GetMapping("/title/{bookTitle}")
+    public void getAllBooksByTitle(@PathVariable String bookTitle, HttpServletResponse response) throws IOException {
+        passThroughBookService.getAllBooksByTitle(bookTitle, copyTo(response));
+    }
+
+    // List all books by author
+    @GetMapping("/author/{bookAuthor}")
+    public void getAllBooksByAuthor(@PathVariable String bookAuthor, HttpServletResponse response) throws IOException {
+        passThroughBookService.getAllBooksByAuthor(bookAuthor, copyTo(response));
+    }
+
+    private static UpstreamBodyHandler copyTo(HttpServletResponse response) {
+        return (status, contentType, contentLength, body) -> {
+            response.setStatus(status);
+            response.setContentType(contentType != null ? contentType.toString() : MediaType.APPLICATION_JSON_VALUE);
+            if (contentLength >= 0) {
+                response.setContentLengthLong(contentLength);
+            }
+            body.transferTo(response.getOutputStream());
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package com.kentcarmine.restapiconsumerpractice.controller;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.service.ReactiveBookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+@RestController
+@ConditionalOnProperty(name = "restapipractice.reactive.enabled", havingValue = "true")
+@RequestMapping("/proxy/api/v1/books")
+public class ReactiveBookController {
+
+    private final ReactiveBookService bookService;
+
+    @Autowired
+    public ReactiveBookController(ReactiveBookService bookService) {
+        this.bookService = bookService;
+    }
+
+    // List one book by id
+    @GetMapping("/{id}")
+    public Mono<BookDto> getBookById(@PathVariable Long id) {
+        return bookService.getBookById(id);
+    }
+
+    // List all books
+    @GetMapping({"", "/"})
+    public Flux<BookDto> getAllBooks() {
+        return bookService.getAllBooks();
+    }
+
+    // Stream all books as they arrive from the backing API
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookDto> streamAllBooks() {
+        return bookService.getAllBooks();
+    }
+
+    // List all books by title
+    @GetMapping("/title/{bookTitle}")
+    public Flux<BookDto> getAllBooksByTitle(@PathVariable String bookTitle) {
+        return bookService.getAllBooksByTitle(bookTitle);
+    }
+
+    // List all books by author
+    @GetMapping("/author/{bookAuthor}")
+    public Flux<BookDto> getAllBooksByAuthor(@PathVariable String bookAuthor) {
+        return bookService.getAllBooksByAuthor(bookAuthor);
+    }
+
+    // Create book
+    @PostMapping("/new")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<BookDto> createNewBook(/*@Valid*/ @RequestBody CreateOrUpdateBookDto newBook) {
+        return bookService.createNewBook(newBook);
+    }
+
+    // Update book
+    @PutMapping("/{id}")
+    public Mono<BookDto> updateBook(@PathVariable Long id, /*@Valid*/ @RequestBody CreateOrUpdateBookDto updateBook) {
+        return bookService.updateBookWithId(id, updateBook);
+    }
+
+    // Delete book by id
+    @DeleteMapping("/{id}")
+    public Mono<BookDto> deleteBook(@PathVariable Long id) {
+        return bookService.deleteBookById(id);
+    }
+
+}
@@ -0,0 +1,362 @@
+package com.kentcarmine.restapiconsumerpractice.controller;
+
+import com.kentcarmine.restapiconsumerpractice.service.support.CompressionMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// Gzips JSON, NDJSON, Smile and CBOR responses for clients that accept it. The body is buffered until it reaches minSizeBytes, so
+// small responses go out unchanged; larger ones are compressed as they are written, with flushes passed through so
+// streamed responses keep streaming. In an async (streaming) request an explicit flush settles the choice at once,
+// so the first flushed bytes are not held back; these requests are finished on their async dispatch.
+@Component
+@ConditionalOnProperty(name = "restapipractice.compression.enabled", havingValue = "true")
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private static final List<String> COMPRESSIBLE_TYPES = List.of("application/json", "application/x-ndjson",
+            "application/problem+json", "application/x-jackson-smile", "application/cbor");
+
+    private final CompressionMetrics compressionMetrics;
+    private final int minSizeBytes;
+    private final int level;
+
+    public ResponseCompressionFilter(CompressionMetrics compressionMetrics,
+                                     @Value("${restapipractice.compression.min_size_bytes:2048}") int minSizeBytes,
+                                     @Value("${restapipractice.compression.level:6}") int level) {
+        this.compressionMetrics = compressionMetrics;
+        this.minSizeBytes = minSizeBytes;
+        this.level = level;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        GzipResponseWrapper wrapper = WebUtils.getNativeResponse(response, GzipResponseWrapper.class);
+        if (wrapper == null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if ("HEAD".equals(request.getMethod()) || !acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            wrapper = new GzipResponseWrapper(request, response);
+        }
+
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            if (!isAsyncStarted(request)) {
+                wrapper.finish();
+            }
+        }
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!"gzip".equalsIgnoreCase(name) && !"*".equals(name)) {
+                continue;
+            }
+            boolean refused = parts.length > 1 && parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class GzipResponseWrapper extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private CompressingOutputStream outputStream;
+        private PrintWriter writer;
+        private long contentLength = -1;
+
+        GzipResponseWrapper(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called for this response");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called for this response");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        // The length is only known to be right if the body ends up uncompressed, so it is held back until then
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            contentLength = len;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                contentLength = value == null ? -1 : Long.parseLong(value);
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setHeader(name, value);
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (outputStream != null) {
+                outputStream.flush();
+            } else {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (outputStream != null) {
+                outputStream.resetBuffer();
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            if (outputStream != null) {
+                outputStream.resetBuffer();
+            }
+            contentLength = -1;
+            super.reset();
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (outputStream != null) {
+                outputStream.finish();
+            } else if (contentLength >= 0) {
+                super.setContentLengthLong(contentLength);
+            }
+        }
+
+        private CompressingOutputStream stream() {
+            if (outputStream == null) {
+                outputStream = new CompressingOutputStream(this);
+            }
+            return outputStream;
+        }
+
+        private boolean compressible() {
+            int status = getStatus();
+            String contentType = getContentType();
+            return status >= 200 && status < 300 && status != HttpServletResponse.SC_NO_CONTENT
+                    && status != HttpServletResponse.SC_PARTIAL_CONTENT
+                    && getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                    && contentType != null
+                    && COMPRESSIBLE_TYPES.stream().anyMatch(contentType::startsWith);
+        }
+    }
+
+    private final class CompressingOutputStream extends ServletOutputStream {
+
+        private final GzipResponseWrapper response;
+        private byte[] buffer = new byte[Math.max(minSizeBytes, 1)];
+        private int buffered;
+        private ServletOutputStream raw;
+        private CountingOutputStream counted;
+        private GZIPOutputStream gzip;
+        private long uncompressedBytes;
+        private long cpuNanos;
+        private boolean finished;
+
+        CompressingOutputStream(GzipResponseWrapper response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (raw == null) {
+                if (buffered + len < minSizeBytes) {
+                    System.arraycopy(b, off, buffer, buffered, len);
+                    buffered += len;
+                    return;
+                }
+                start(true, false);
+            }
+            writeThrough(b, off, len);
+        }
+
+        // Below the size threshold a synchronous response keeps buffering, as its converter flushes once at the end
+        // anyway; a streamed one decides now so the bytes it asked to send go out
+        @Override
+        public void flush() throws IOException {
+            if (raw == null && !finished && response.request.isAsyncStarted()) {
+                start(true, false);
+            }
+            if (gzip != null) {
+                long start = CompressionMetrics.cpuNanos();
+                gzip.flush();
+                cpuNanos += CompressionMetrics.cpuNanos() - start;
+            } else if (raw != null) {
+                raw.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException("Non-blocking writes are not supported with compression");
+        }
+
+        void resetBuffer() {
+            if (raw == null) {
+                buffered = 0;
+            }
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (raw == null) {
+                start(false, true);
+            }
+            if (gzip != null) {
+                long start = CompressionMetrics.cpuNanos();
+                gzip.finish();
+                cpuNanos += CompressionMetrics.cpuNanos() - start;
+                compressionMetrics.recordResponse(uncompressedBytes, counted.count, cpuNanos);
+            }
+            raw.flush();
+        }
+
+        // compress: gzip if the response type allows it; complete: the buffer holds the whole body
+        private void start(boolean compress, boolean complete) throws IOException {
+            HttpServletResponse target = (HttpServletResponse) response.getResponse();
+            ServletOutputStream out = target.getOutputStream();
+            if (compress && response.compressible()) {
+                target.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                counted = new CountingOutputStream(out);
+                gzip = new GZIPOutputStream(counted, 8192, true) {
+                    {
+                        def.setLevel(level);
+                    }
+                };
+            } else if (response.contentLength >= 0) {
+                target.setContentLengthLong(response.contentLength);
+            } else if (complete) {
+                target.setContentLength(buffered);
+            }
+            raw = out;
+            if (buffered > 0) {
+                writeThrough(buffer, 0, buffered);
+            }
+            buffered = 0;
+            buffer = null;
+        }
+
+        private void writeThrough(byte[] b, int off, int len) throws IOException {
+            if (gzip == null) {
+                raw.write(b, off, len);
+                return;
+            }
+            long start = CompressionMetrics.cpuNanos();
+            gzip.write(b, off, len);
+            cpuNanos += CompressionMetrics.cpuNanos() - start;
+            uncompressedBytes += len;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+        private long count;
+
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+    }
+}
@@ -2,9 +2,14 @@ package com.kentcarmine.restapiconsumerpractice.controller.errorhandling;
 
 import com.kentcarmine.restapiconsumerpractice.dto.error.ApiError;
 import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.exception.InvalidBookInputException;
+import com.kentcarmine.restapiconsumerpractice.exception.InvalidPageRequestException;
+import com.kentcarmine.restapiconsumerpractice.exception.OverloadedException;
 import com.kentcarmine.restapiconsumerpractice.exception.UnknownException;
+import com.kentcarmine.restapiconsumerpractice.exception.UpstreamUnavailableException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
@@ -25,6 +30,19 @@ import java.util.List;
 public class CustomRestExceptionHandler extends ResponseEntityExceptionHandler {
 
     private static final String MALFORMED_INPUT_MSG = "Input was malformed";
+    private static final String UPSTREAM_UNAVAILABLE_MSG = "Backing API is unavailable";
+    private static final String OVERLOADED_MSG = "Proxy is overloaded";
+    private static final int MAX_CACHED_BODIES = 256;
+
+    // Pre-serialized JSON for the errors clients hit most; see ErrorBodies
+    private final ErrorBodies.IdTemplate bookNotFoundBody = new ErrorBodies.IdTemplate(
+            bookNotFoundError(new BookNotFoundException(ErrorBodies.IdTemplate.PLACEHOLDER)));
+    private final ErrorBodies.Cache invalidInputBodies =
+            new ErrorBodies.Cache(HttpStatus.BAD_REQUEST, MALFORMED_INPUT_MSG, MAX_CACHED_BODIES);
+    private final ErrorBodies.Cache upstreamUnavailableBodies =
+            new ErrorBodies.Cache(HttpStatus.SERVICE_UNAVAILABLE, UPSTREAM_UNAVAILABLE_MSG, MAX_CACHED_BODIES);
+    private final ErrorBodies.Cache overloadedBodies =
+            new ErrorBodies.Cache(HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_MSG, MAX_CACHED_BODIES);
 
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
@@ -100,16 +118,37 @@ public class CustomRestExceptionHandler extends ResponseEntityExceptionHandler {
     @ExceptionHandler({ BookNotFoundException.class })
     public ResponseEntity<Object> handleBookNotFoundException(
             BookNotFoundException ex, WebRequest request) {
-        String errorStr = ex.getMessage();
-
-//        System.out.println("### in handleBookNotFoundException");
+        Long id = ex.getNotFoundId();
+        if (id != null && id >= 0 && ErrorBodies.acceptsJson(request)) {
+            return new ResponseEntity<Object>(
+                    bookNotFoundBody.render(id), ErrorBodies.JSON_HEADERS, HttpStatus.NOT_FOUND);
+        }
 
-        ApiError apiError =
-                new ApiError(HttpStatus.NOT_FOUND, ex.getLocalizedMessage(), errorStr);
+        ApiError apiError = bookNotFoundError(ex);
         return new ResponseEntity<Object>(
                 apiError, new HttpHeaders(), apiError.getStatus());
     }
 
+    @ExceptionHandler({ InvalidBookInputException.class, InvalidPageRequestException.class })
+    public ResponseEntity<Object> handleInvalidInput(
+            RuntimeException ex, WebRequest request) {
+        return cachedOrNegotiated(invalidInputBodies, ex.getLocalizedMessage(), null, request);
+    }
+
+    @ExceptionHandler({ UpstreamUnavailableException.class })
+    public ResponseEntity<Object> handleUpstreamUnavailable(
+            UpstreamUnavailableException ex, WebRequest request) {
+        return cachedOrNegotiated(upstreamUnavailableBodies, ex.getLocalizedMessage(), null, request);
+    }
+
+    @ExceptionHandler({ OverloadedException.class })
+    public ResponseEntity<Object> handleOverloaded(
+            OverloadedException ex, WebRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+        return cachedOrNegotiated(overloadedBodies, ex.getLocalizedMessage(), headers, request);
+    }
+
     @ExceptionHandler({UnknownException.class, Exception.class })
     public ResponseEntity<Object> handleAll(Exception ex, WebRequest request) {
         ApiError apiError = new ApiError(
@@ -117,4 +156,24 @@ public class CustomRestExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<Object>(
                 apiError, new HttpHeaders(), apiError.getStatus());
     }
+
+    private static ApiError bookNotFoundError(BookNotFoundException ex) {
+        return new ApiError(HttpStatus.NOT_FOUND, ex.getLocalizedMessage(), ex.getMessage());
+    }
+
+    // extraHeaders may be null when the error has none of its own
+    private static ResponseEntity<Object> cachedOrNegotiated(
+            ErrorBodies.Cache bodies, String error, HttpHeaders extraHeaders, WebRequest request) {
+        if (ErrorBodies.acceptsJson(request)) {
+            HttpHeaders headers = ErrorBodies.JSON_HEADERS;
+            if (extraHeaders != null) {
+                extraHeaders.setContentType(MediaType.APPLICATION_JSON);
+                headers = extraHeaders;
+            }
+            return new ResponseEntity<Object>(bodies.get(error), headers, bodies.getStatus());
+        }
+        ApiError apiError = new ApiError(bodies.getStatus(), bodies.getMessage(), error);
+        return new ResponseEntity<Object>(
+                apiError, extraHeaders == null ? new HttpHeaders() : extraHeaders, apiError.getStatus());
+    }
 }
@@ -0,0 +1,151 @@
+package com.kentcarmine.restapiconsumerpractice.controller.errorhandling;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kentcarmine.restapiconsumerpractice.dto.error.ApiError;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ApiError bodies serialized to JSON once and reused, for the errors common enough that serializing each one shows
+// up. Only used when the client takes JSON; anyone asking for Smile or CBOR gets the ApiError negotiated as usual.
+final class ErrorBodies {
+
+    static final HttpHeaders JSON_HEADERS;
+
+    static {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        JSON_HEADERS = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private ErrorBodies() {
+    }
+
+    static boolean acceptsJson(WebRequest request) {
+        String accept = request == null ? null : request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.equals(MediaType.APPLICATION_JSON_VALUE) || accept.equals(MediaType.ALL_VALUE)) {
+            return true;
+        }
+        List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        return !mediaTypes.isEmpty() && mediaTypes.get(0).includes(MediaType.APPLICATION_JSON);
+    }
+
+    static byte[] serialize(ApiError apiError) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(apiError);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + apiError.getStatus() + " error body", e);
+        }
+    }
+
+    // Bodies for one status and message, keyed by the error detail; past maxSize details are serialized uncached
+    static final class Cache {
+
+        private final HttpStatus status;
+        private final String message;
+        private final int maxSize;
+        private final Map<String, byte[]> bodies = new ConcurrentHashMap<>();
+
+        Cache(HttpStatus status, String message, int maxSize) {
+            this.status = status;
+            this.message = message;
+            this.maxSize = maxSize;
+        }
+
+        HttpStatus getStatus() {
+            return status;
+        }
+
+        String getMessage() {
+            return message;
+        }
+
+        byte[] get(String error) {
+            byte[] body = bodies.get(error);
+            if (body == null) {
+                body = serialize(new ApiError(status, message, error));
+                if (bodies.size() < maxSize) {
+                    bodies.put(error, body);
+                }
+            }
+            return body;
+        }
+    }
+
+    // A body serialized once around a placeholder id and split there, so each error only fills in the digits
+    static final class IdTemplate {
+
+        static final long PLACEHOLDER = Long.MIN_VALUE;
+
+        private final byte[][] parts;
+        private final int partsLength;
+
+        IdTemplate(ApiError placeholderError) {
+            byte[] body = serialize(placeholderError);
+            byte[] placeholder = Long.toString(PLACEHOLDER).getBytes(StandardCharsets.US_ASCII);
+            List<byte[]> split = new ArrayList<>();
+            int start = 0;
+            for (int i = indexOf(body, placeholder, 0); i >= 0; i = indexOf(body, placeholder, start)) {
+                split.add(Arrays.copyOfRange(body, start, i));
+                start = i + placeholder.length;
+            }
+            split.add(Arrays.copyOfRange(body, start, body.length));
+            parts = split.toArray(new byte[0][]);
+            partsLength = split.stream().mapToInt(part -> part.length).sum();
+        }
+
+        // Negative ids are left to the caller; none are ever issued
+        byte[] render(long id) {
+            int digits = digits(id);
+            byte[] body = new byte[partsLength + digits * (parts.length - 1)];
+            int pos = 0;
+            for (int i = 0; i < parts.length; i++) {
+                if (i > 0) {
+                    long rest = id;
+                    for (int d = pos + digits - 1; d >= pos; d--) {
+                        body[d] = (byte) ('0' + rest % 10);
+                        rest /= 10;
+                    }
+                    pos += digits;
+                }
+                System.arraycopy(parts[i], 0, body, pos, parts[i].length);
+                pos += parts[i].length;
+            }
+            return body;
+        }
+
+        private static int digits(long id) {
+            int digits = 1;
+            for (long rest = id / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            return digits;
+        }
+
+        private static int indexOf(byte[] body, byte[] target, int from) {
+            outer:
+            for (int i = from; i <= body.length - target.length; i++) {
+                for (int j = 0; j < target.length; j++) {
+                    if (body[i + j] != target[j]) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+            return -1;
+        }
+    }
+}
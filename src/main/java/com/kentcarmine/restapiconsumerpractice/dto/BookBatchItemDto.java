@@ -0,0 +1,61 @@
+package com.kentcarmine.restapiconsumerpractice.dto;
+
+public class BookBatchItemDto {
+
+    private Long id;
+    private int status;
+    private BookDto book;
+    private String error;
+
+    public BookBatchItemDto() {
+    }
+
+    public BookBatchItemDto(Long id, int status, BookDto book, String error) {
+        this.id = id;
+        this.status = status;
+        this.book = book;
+        this.error = error;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public BookDto getBook() {
+        return book;
+    }
+
+    public void setBook(BookDto book) {
+        this.book = book;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "BookBatchItemDto{" +
+                "id=" + id +
+                ", status=" + status +
+                ", book=" + book +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
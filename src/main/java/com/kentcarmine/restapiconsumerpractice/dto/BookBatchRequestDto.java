@@ -0,0 +1,33 @@
+package com.kentcarmine.restapiconsumerpractice.dto;
+
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+public class BookBatchRequestDto {
+
+    @NotEmpty
+    private List<Long> ids;
+
+    public BookBatchRequestDto() {
+        this.ids = null;
+    }
+
+    public BookBatchRequestDto(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    @Override
+    public String toString() {
+        return "BookBatchRequestDto{" +
+                "ids=" + ids +
+                '}';
+    }
+}
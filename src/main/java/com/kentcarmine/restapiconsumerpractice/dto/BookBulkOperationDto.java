@@ -0,0 +1,83 @@
+package com.kentcarmine.restapiconsumerpractice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.validation.Valid;
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+public class BookBulkOperationDto {
+
+    @NotNull
+    private BookBulkOperationType op;
+
+    @Positive
+    private Long id;
+
+    @Valid
+    private CreateOrUpdateBookDto book;
+
+    public BookBulkOperationDto() {
+        this.op = null;
+        this.id = null;
+        this.book = null;
+    }
+
+    public BookBulkOperationDto(BookBulkOperationType op, Long id, CreateOrUpdateBookDto book) {
+        this.op = op;
+        this.id = id;
+        this.book = book;
+    }
+
+    public BookBulkOperationType getOp() {
+        return op;
+    }
+
+    public void setOp(BookBulkOperationType op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public CreateOrUpdateBookDto getBook() {
+        return book;
+    }
+
+    public void setBook(CreateOrUpdateBookDto book) {
+        this.book = book;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "CREATE needs a book, UPDATE needs an id and a book, DELETE needs an id")
+    public boolean isComplete() {
+        if (op == null) {
+            return true;
+        }
+        switch (op) {
+            case CREATE:
+                return book != null;
+            case UPDATE:
+                return id != null && book != null;
+            case DELETE:
+                return id != null;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BookBulkOperationDto{" +
+                "op=" + op +
+                ", id=" + id +
+                ", book=" + book +
+                '}';
+    }
+}
@@ -0,0 +1,7 @@
+package com.kentcarmine.restapiconsumerpractice.dto;
+
+public enum BookBulkOperationType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
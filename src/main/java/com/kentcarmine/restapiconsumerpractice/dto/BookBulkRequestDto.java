@@ -0,0 +1,35 @@
+package com.kentcarmine.restapiconsumerpractice.dto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+public class BookBulkRequestDto {
+
+    @NotEmpty
+    private List<@Valid @NotNull BookBulkOperationDto> operations;
+
+    public BookBulkRequestDto() {
+        this.operations = null;
+    }
+
+    public BookBulkRequestDto(List<BookBulkOperationDto> operations) {
+        this.operations = operations;
+    }
+
+    public List<BookBulkOperationDto> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<BookBulkOperationDto> operations) {
+        this.operations = operations;
+    }
+
+    @Override
+    public String toString() {
+        return "BookBulkRequestDto{" +
+                "operations=" + operations +
+                '}';
+    }
+}
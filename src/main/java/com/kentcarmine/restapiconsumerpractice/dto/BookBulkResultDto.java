@@ -0,0 +1,83 @@
+package com.kentcarmine.restapiconsumerpractice.dto;
+
+public class BookBulkResultDto {
+
+    private int index;
+    private BookBulkOperationType op;
+    private Long id;
+    private int status;
+    private BookDto book;
+    private String error;
+
+    public BookBulkResultDto() {
+    }
+
+    public BookBulkResultDto(int index, BookBulkOperationType op, Long id, int status, BookDto book, String error) {
+        this.index = index;
+        this.op = op;
+        this.id = id;
+        this.status = status;
+        this.book = book;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public BookBulkOperationType getOp() {
+        return op;
+    }
+
+    public void setOp(BookBulkOperationType op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public BookDto getBook() {
+        return book;
+    }
+
+    public void setBook(BookDto book) {
+        this.book = book;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "BookBulkResultDto{" +
+                "index=" + index +
+                ", op=" + op +
+                ", id=" + id +
+                ", status=" + status +
+                ", book=" + book +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package com.kentcarmine.restapiconsumerpractice.dto;
+
+import java.util.List;
+
+public class BookPageDto {
+
+    private List<BookDto> content;
+    private Integer page;
+    private int size;
+    private long totalElements;
+    private String nextCursor;
+
+    public BookPageDto() {
+    }
+
+    public BookPageDto(List<BookDto> content, Integer page, int size, long totalElements, String nextCursor) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<BookDto> getContent() {
+        return content;
+    }
+
+    public void setContent(List<BookDto> content) {
+        this.content = content;
+    }
+
+    public Integer getPage() {
+        return page;
+    }
+
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "BookPageDto{" +
+                "content=" + content +
+                ", page=" + page +
+                ", size=" + size +
+                ", totalElements=" + totalElements +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,8 @@
+package com.kentcarmine.restapiconsumerpractice.dto;
+
+public enum BookSearchMode {
+    EXACT,
+    IGNORE_CASE,
+    PREFIX,
+    TOKEN
+}
@@ -1,5 +1,6 @@
 package com.kentcarmine.restapiconsumerpractice.exception;
 
+// An expected answer rather than a fault, so no stack trace is captured and the message is only built when asked for
 public class BookNotFoundException extends ResourceNotFoundException {
 
     private static final String DEFAULT_MESSAGE = "Book was not found";
@@ -7,9 +8,16 @@ public class BookNotFoundException extends ResourceNotFoundException {
     private final Long notFoundId;
 
     public BookNotFoundException(Long notFoundId) {
-        super("Book with id = " + notFoundId + " was not found");
+        super(null, null, false, false);
         this.notFoundId = notFoundId;
     }
 
+    public Long getNotFoundId() {
+        return notFoundId;
+    }
 
+    @Override
+    public String getMessage() {
+        return "Book with id = " + notFoundId + " was not found";
+    }
 }
@@ -1,15 +1,16 @@
 package com.kentcarmine.restapiconsumerpractice.exception;
 
+// Rejected input is reported to the client, not debugged from a trace, so the message-only forms capture none
 public class InvalidBookInputException extends RuntimeException {
 
     private static final String DEFAULT_MSG = "Book input was invalid or empty/null";
 
     public InvalidBookInputException() {
-        super(DEFAULT_MSG);
+        this(DEFAULT_MSG);
     }
 
     public InvalidBookInputException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public InvalidBookInputException(String message, Throwable cause) {
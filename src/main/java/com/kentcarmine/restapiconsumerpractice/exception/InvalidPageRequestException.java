@@ -0,0 +1,15 @@
+package com.kentcarmine.restapiconsumerpractice.exception;
+
+// Reported to the client as a 400, so no stack trace is captured
+public class InvalidPageRequestException extends RuntimeException {
+
+    private static final String DEFAULT_MSG = "Page request was invalid";
+
+    public InvalidPageRequestException() {
+        this(DEFAULT_MSG);
+    }
+
+    public InvalidPageRequestException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,16 @@
+package com.kentcarmine.restapiconsumerpractice.exception;
+
+// Thrown for every shed request, when the proxy can least afford the work, so no stack trace is captured
+public class OverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public OverloadedException(String endpoint, long retryAfterSeconds) {
+        super("Too many concurrent requests to " + endpoint, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
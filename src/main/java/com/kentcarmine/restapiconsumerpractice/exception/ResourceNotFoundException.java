@@ -12,4 +12,8 @@ public class ResourceNotFoundException extends RuntimeException {
         super(message);
     }
 
+    protected ResourceNotFoundException(String message, Throwable cause, boolean enableSuppression,
+                                        boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
 }
@@ -0,0 +1,14 @@
+package com.kentcarmine.restapiconsumerpractice.exception;
+
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private static final String DEFAULT_MSG = "Backing API is unavailable";
+
+    public UpstreamUnavailableException() {
+        super(DEFAULT_MSG);
+    }
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookBatchItemDto;
+
+import java.util.List;
+
+public interface BookBatchService {
+
+    List<BookBatchItemDto> getBooksByIds(List<Long> ids);
+}
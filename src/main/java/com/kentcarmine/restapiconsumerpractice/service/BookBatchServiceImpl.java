@@ -0,0 +1,76 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookBatchItemDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.exception.InvalidBookInputException;
+import com.kentcarmine.restapiconsumerpractice.exception.UpstreamUnavailableException;
+import com.kentcarmine.restapiconsumerpractice.service.support.BoundedFanOut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+@Service
+public class BookBatchServiceImpl implements BookBatchService {
+
+    private static final String TIMEOUT_MSG = "Timed out waiting for backing API";
+
+    private final BookService bookService;
+    private final BoundedFanOut fanOut;
+    private final int maxIds;
+
+    public BookBatchServiceImpl(BookService bookService,
+                                ExecutorService upstreamExecutor,
+                                @Value("${restapipractice.batch.max_ids:100}") int maxIds,
+                                @Value("${restapipractice.batch.max_concurrency:8}") int maxConcurrency,
+                                @Value("${restapipractice.batch.timeout_ms:10000}") long timeoutMs) {
+        this.bookService = bookService;
+        this.fanOut = new BoundedFanOut(upstreamExecutor, maxConcurrency, timeoutMs);
+        this.maxIds = maxIds;
+    }
+
+    @Override
+    public List<BookBatchItemDto> getBooksByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new InvalidBookInputException("ids cannot be empty");
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.contains(null)) {
+            throw new InvalidBookInputException("ids cannot contain null");
+        }
+        if (distinctIds.size() > maxIds) {
+            throw new InvalidBookInputException("at most " + maxIds + " distinct ids are allowed per batch");
+        }
+
+        List<Long> orderedIds = new ArrayList<>(distinctIds);
+        List<Callable<BookBatchItemDto>> tasks = new ArrayList<>(orderedIds.size());
+        for (Long id : orderedIds) {
+            tasks.add(() -> fetch(id));
+        }
+
+        return fanOut.run(tasks,
+                index -> new BookBatchItemDto(orderedIds.get(index), HttpStatus.GATEWAY_TIMEOUT.value(), null, TIMEOUT_MSG),
+                (index, e) -> new BookBatchItemDto(orderedIds.get(index), HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                        null, e.getMessage()));
+    }
+
+    private BookBatchItemDto fetch(Long id) {
+        try {
+            BookDto book = bookService.getBookById(id);
+            return new BookBatchItemDto(id, HttpStatus.OK.value(), book, null);
+        } catch (BookNotFoundException e) {
+            return new BookBatchItemDto(id, HttpStatus.NOT_FOUND.value(), null, e.getMessage());
+        } catch (UpstreamUnavailableException e) {
+            return new BookBatchItemDto(id, HttpStatus.SERVICE_UNAVAILABLE.value(), null, e.getMessage());
+        } catch (RuntimeException e) {
+            return new BookBatchItemDto(id, HttpStatus.INTERNAL_SERVER_ERROR.value(), null, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookBulkOperationDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookBulkResultDto;
+
+import java.util.List;
+
+public interface BookBulkService {
+
+    List<BookBulkResultDto> execute(List<BookBulkOperationDto> operations);
+}
@@ -0,0 +1,128 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookBulkOperationDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookBulkResultDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.exception.InvalidBookInputException;
+import com.kentcarmine.restapiconsumerpractice.exception.UpstreamUnavailableException;
+import com.kentcarmine.restapiconsumerpractice.service.support.BoundedFanOut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import javax.validation.ConstraintViolationException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+@Service
+public class BookBulkServiceImpl implements BookBulkService {
+
+    private static final String TIMEOUT_MSG = "Timed out waiting for backing API";
+
+    private final BookService bookService;
+    private final BoundedFanOut fanOut;
+    private final int maxOperations;
+
+    public BookBulkServiceImpl(BookService bookService,
+                               ExecutorService upstreamExecutor,
+                               @Value("${restapipractice.bulk.max_operations:1000}") int maxOperations,
+                               @Value("${restapipractice.bulk.max_concurrency:16}") int maxConcurrency,
+                               @Value("${restapipractice.bulk.timeout_ms:60000}") long timeoutMs) {
+        this.bookService = bookService;
+        this.fanOut = new BoundedFanOut(upstreamExecutor, maxConcurrency, timeoutMs);
+        this.maxOperations = maxOperations;
+    }
+
+    @Override
+    public List<BookBulkResultDto> execute(List<BookBulkOperationDto> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new InvalidBookInputException("operations cannot be empty");
+        }
+        if (operations.size() > maxOperations) {
+            throw new InvalidBookInputException("at most " + maxOperations + " operations are allowed per request");
+        }
+
+        // Operations on the same id run one after another in request order; everything else runs in parallel
+        Map<Object, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            Long id = operations.get(i).getId();
+            Object key = id == null ? "index:" + i : id;
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+
+        List<List<Integer>> groupIndexes = new ArrayList<>(groups.values());
+        List<Callable<List<BookBulkResultDto>>> tasks = new ArrayList<>(groupIndexes.size());
+        for (List<Integer> indexes : groupIndexes) {
+            tasks.add(() -> {
+                List<BookBulkResultDto> groupResults = new ArrayList<>(indexes.size());
+                for (int index : indexes) {
+                    groupResults.add(apply(index, operations.get(index)));
+                }
+                return groupResults;
+            });
+        }
+
+        List<List<BookBulkResultDto>> groupResults = fanOut.run(tasks,
+                group -> failed(groupIndexes.get(group), operations, HttpStatus.GATEWAY_TIMEOUT, TIMEOUT_MSG),
+                (group, e) -> failed(groupIndexes.get(group), operations, HttpStatus.INTERNAL_SERVER_ERROR,
+                        e.getMessage()));
+
+        BookBulkResultDto[] results = new BookBulkResultDto[operations.size()];
+        for (List<BookBulkResultDto> group : groupResults) {
+            for (BookBulkResultDto result : group) {
+                results[result.getIndex()] = result;
+            }
+        }
+        return List.of(results);
+    }
+
+    private BookBulkResultDto apply(int index, BookBulkOperationDto operation) {
+        try {
+            switch (operation.getOp()) {
+                case CREATE:
+                    BookDto created = bookService.createNewBook(operation.getBook());
+                    return new BookBulkResultDto(index, operation.getOp(), created == null ? null : created.getId(),
+                            HttpStatus.CREATED.value(), created, null);
+                case UPDATE:
+                    BookDto updated = bookService.updateBookWithId(operation.getId(), operation.getBook());
+                    return new BookBulkResultDto(index, operation.getOp(), operation.getId(),
+                            HttpStatus.OK.value(), updated, null);
+                case DELETE:
+                    BookDto deleted = bookService.deleteBookById(operation.getId());
+                    return new BookBulkResultDto(index, operation.getOp(), operation.getId(),
+                            HttpStatus.OK.value(), deleted, null);
+                default:
+                    return result(index, operation, HttpStatus.BAD_REQUEST.value(), "Unsupported operation");
+            }
+        } catch (BookNotFoundException e) {
+            return result(index, operation, HttpStatus.NOT_FOUND.value(), e.getMessage());
+        } catch (ConstraintViolationException e) {
+            return result(index, operation, HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        } catch (UpstreamUnavailableException e) {
+            return result(index, operation, HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
+        } catch (HttpStatusCodeException e) {
+            return result(index, operation, e.getRawStatusCode(), e.getStatusText());
+        } catch (RuntimeException e) {
+            return result(index, operation, HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage());
+        }
+    }
+
+    private static List<BookBulkResultDto> failed(List<Integer> indexes, List<BookBulkOperationDto> operations,
+                                                  HttpStatus status, String error) {
+        List<BookBulkResultDto> results = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            results.add(result(index, operations.get(index), status.value(), error));
+        }
+        return results;
+    }
+
+    private static BookBulkResultDto result(int index, BookBulkOperationDto operation, int status, String error) {
+        return new BookBulkResultDto(index, operation.getOp(), operation.getId(), status, null, error);
+    }
+}
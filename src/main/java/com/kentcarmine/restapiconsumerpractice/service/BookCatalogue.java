@@ -0,0 +1,287 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookSearchMode;
+import com.kentcarmine.restapiconsumerpractice.exception.InvalidBookInputException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// In-memory mirror of the upstream catalogue with title and author indexes, refreshed from the upstream on a
+// fixed delay. Reads are lock-free; writes, including each refresh, are applied in place under a single lock.
+@Component
+@ConditionalOnProperty(name = "restapipractice.index.enabled", havingValue = "true")
+public class BookCatalogue {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final BookService source;
+    private final Map<Long, BookDto> books = new ConcurrentHashMap<>();
+    private final FieldIndex titleIndex = new FieldIndex(BookDto::getTitle);
+    private final FieldIndex authorIndex = new FieldIndex(BookDto::getAuthor);
+
+    // Ids written since the current refresh started; the refresh must not overwrite them with older upstream data
+    private final Set<Long> writtenDuringRefresh = new HashSet<>();
+    private final Object refreshLock = new Object();
+
+    private volatile long lastRefreshMillis;
+
+    public BookCatalogue(BookServiceImpl source) {
+        this.source = source;
+    }
+
+    @Scheduled(fixedDelayString = "${restapipractice.index.refresh_ms:60000}")
+    public void refresh() {
+        synchronized (refreshLock) {
+            synchronized (this) {
+                writtenDuringRefresh.clear();
+            }
+
+            Map<Long, BookDto> latest = new HashMap<>();
+            source.streamAllBooks(book -> {
+                if (book.getId() != null) {
+                    latest.put(book.getId(), book);
+                }
+            });
+
+            // Only touch the entries that changed, so readers never see a partially built index
+            synchronized (this) {
+                for (Long id : Set.copyOf(books.keySet())) {
+                    if (!latest.containsKey(id) && !writtenDuringRefresh.contains(id)) {
+                        removeEntry(id);
+                    }
+                }
+                for (BookDto book : latest.values()) {
+                    if (!writtenDuringRefresh.contains(book.getId()) && !sameBook(books.get(book.getId()), book)) {
+                        putEntry(book);
+                    }
+                }
+                writtenDuringRefresh.clear();
+            }
+            lastRefreshMillis = System.currentTimeMillis();
+        }
+    }
+
+    // Fills a catalogue that has not loaded yet from a snapshot, so it serves reads before the first refresh completes
+    public void restore(Collection<BookDto> snapshot, long takenAtMillis) {
+        synchronized (refreshLock) {
+            if (isLoaded()) {
+                return;
+            }
+            synchronized (this) {
+                for (BookDto book : snapshot) {
+                    if (book.getId() != null && !books.containsKey(book.getId())) {
+                        putEntry(book);
+                    }
+                }
+            }
+            lastRefreshMillis = takenAtMillis;
+        }
+    }
+
+    public boolean isLoaded() {
+        return lastRefreshMillis != 0;
+    }
+
+    public long getLastRefreshMillis() {
+        return lastRefreshMillis;
+    }
+
+    public int size() {
+        return books.size();
+    }
+
+    public BookDto get(Long id) {
+        return books.get(id);
+    }
+
+    public Set<BookDto> getAll() {
+        return new HashSet<>(books.values());
+    }
+
+    public Set<BookDto> findByTitle(String title, BookSearchMode mode) {
+        return toBooks(titleIndex.find(title, mode));
+    }
+
+    public Set<BookDto> findByAuthor(String author, BookSearchMode mode) {
+        return toBooks(authorIndex.find(author, mode));
+    }
+
+    // Books matching every given criterion; loads the catalogue first if no refresh has completed yet
+    public Set<BookDto> search(String title, String author, BookSearchMode mode) {
+        if (isBlank(title) && isBlank(author)) {
+            throw new InvalidBookInputException("title or author must be given");
+        }
+        if (!isLoaded()) {
+            refresh();
+        }
+
+        Set<Long> ids = null;
+        if (!isBlank(title)) {
+            ids = titleIndex.find(title, mode);
+        }
+        if (!isBlank(author)) {
+            Set<Long> authorIds = authorIndex.find(author, mode);
+            if (ids == null) {
+                ids = authorIds;
+            } else {
+                ids.retainAll(authorIds);
+            }
+        }
+        return toBooks(ids);
+    }
+
+    public synchronized void put(BookDto book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        putEntry(book);
+        writtenDuringRefresh.add(book.getId());
+    }
+
+    public synchronized void remove(Long id) {
+        removeEntry(id);
+        writtenDuringRefresh.add(id);
+    }
+
+    private void putEntry(BookDto book) {
+        BookDto previous = books.put(book.getId(), book);
+        if (previous != null) {
+            titleIndex.remove(previous);
+            authorIndex.remove(previous);
+        }
+        titleIndex.add(book);
+        authorIndex.add(book);
+    }
+
+    private void removeEntry(Long id) {
+        BookDto previous = books.remove(id);
+        if (previous != null) {
+            titleIndex.remove(previous);
+            authorIndex.remove(previous);
+        }
+    }
+
+    private Set<BookDto> toBooks(Set<Long> ids) {
+        Set<BookDto> result = new HashSet<>();
+        for (Long id : ids) {
+            BookDto book = books.get(id);
+            if (book != null) {
+                result.add(book);
+            }
+        }
+        return result;
+    }
+
+    private static boolean sameBook(BookDto a, BookDto b) {
+        return a != null && Objects.equals(a.getTitle(), b.getTitle()) && Objects.equals(a.getAuthor(), b.getAuthor());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> tokens(String value) {
+        Set<String> tokens = new HashSet<>();
+        for (String token : TOKEN_SEPARATOR.split(normalize(value))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Ids by lower-cased field value (sorted, for prefix lookups) and by each word of the value
+    private final class FieldIndex {
+
+        private final Function<BookDto, String> field;
+        private final ConcurrentSkipListMap<String, Set<Long>> byValue = new ConcurrentSkipListMap<>();
+        private final Map<String, Set<Long>> byToken = new ConcurrentHashMap<>();
+
+        FieldIndex(Function<BookDto, String> field) {
+            this.field = field;
+        }
+
+        void add(BookDto book) {
+            String value = field.apply(book);
+            if (value == null) {
+                return;
+            }
+            byValue.computeIfAbsent(normalize(value), k -> ConcurrentHashMap.newKeySet()).add(book.getId());
+            for (String token : tokens(value)) {
+                byToken.computeIfAbsent(token, k -> ConcurrentHashMap.newKeySet()).add(book.getId());
+            }
+        }
+
+        void remove(BookDto book) {
+            String value = field.apply(book);
+            if (value == null) {
+                return;
+            }
+            removeId(byValue, normalize(value), book.getId());
+            for (String token : tokens(value)) {
+                removeId(byToken, token, book.getId());
+            }
+        }
+
+        Set<Long> find(String query, BookSearchMode mode) {
+            if (query == null) {
+                return new HashSet<>();
+            }
+            String key = normalize(query);
+            switch (mode) {
+                case EXACT:
+                    Set<Long> exact = new HashSet<>();
+                    for (Long id : byValue.getOrDefault(key, Collections.emptySet())) {
+                        BookDto book = books.get(id);
+                        if (book != null && query.equals(field.apply(book))) {
+                            exact.add(id);
+                        }
+                    }
+                    return exact;
+                case IGNORE_CASE:
+                    return new HashSet<>(byValue.getOrDefault(key, Collections.emptySet()));
+                case PREFIX:
+                    Set<Long> prefixed = new HashSet<>();
+                    byValue.subMap(key, true, key + Character.MAX_VALUE, false).values().forEach(prefixed::addAll);
+                    return prefixed;
+                case TOKEN:
+                default:
+                    Set<Long> matched = null;
+                    for (String token : tokens(query)) {
+                        Set<Long> ids = byToken.getOrDefault(token, Collections.emptySet());
+                        if (matched == null) {
+                            matched = new HashSet<>(ids);
+                        } else {
+                            matched.retainAll(ids);
+                        }
+                    }
+                    return matched == null ? new HashSet<>() : matched;
+            }
+        }
+
+        private void removeId(Map<String, Set<Long>> map, String key, Long id) {
+            map.computeIfPresent(key, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookPageDto;
+
+public interface BookPageService {
+
+    BookPageDto getAllBooks(Integer page, int size, String cursor);
+
+    BookPageDto getAllBooksByTitle(String title, Integer page, int size, String cursor);
+
+    BookPageDto getAllBooksByAuthor(String author, Integer page, int size, String cursor);
+}
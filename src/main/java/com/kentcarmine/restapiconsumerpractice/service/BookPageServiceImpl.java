@@ -0,0 +1,134 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookPageDto;
+import com.kentcarmine.restapiconsumerpractice.exception.InvalidPageRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+// The backing API cannot page, so each listing is fetched once, sorted by id and kept briefly so that
+// consecutive pages are sliced from the same snapshot instead of re-fetching the whole catalogue.
+@Service
+public class BookPageServiceImpl implements BookPageService {
+
+    private static final String CURSOR_PREFIX = "after:";
+    private static final Comparator<BookDto> BY_ID =
+            Comparator.comparing(BookDto::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final BookService bookService;
+    private final int maxPageSize;
+    private final Cache<String, List<BookDto>> snapshots;
+
+    public BookPageServiceImpl(BookService bookService,
+                               @Value("${restapipractice.paging.max_size:1000}") int maxPageSize,
+                               @Value("${restapipractice.paging.snapshot_ttl_ms:30000}") long snapshotTtlMs,
+                               @Value("${restapipractice.paging.max_snapshots:1000}") long maxSnapshots) {
+        this.bookService = bookService;
+        this.maxPageSize = maxPageSize;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSnapshots)
+                .expireAfterWrite(Duration.ofMillis(snapshotTtlMs))
+                .build();
+    }
+
+    @Override
+    public BookPageDto getAllBooks(Integer page, int size, String cursor) {
+        return slice("findAll", bookService::getAllBooks, page, size, cursor);
+    }
+
+    @Override
+    public BookPageDto getAllBooksByTitle(String title, Integer page, int size, String cursor) {
+        return slice("title:" + title, () -> bookService.getAllBooksByTitle(title), page, size, cursor);
+    }
+
+    @Override
+    public BookPageDto getAllBooksByAuthor(String author, Integer page, int size, String cursor) {
+        return slice("author:" + author, () -> bookService.getAllBooksByAuthor(author), page, size, cursor);
+    }
+
+    private List<BookDto> snapshot(String key, Supplier<? extends Collection<BookDto>> loader) {
+        return snapshots.get(key, k -> {
+            Collection<BookDto> books = loader.get();
+            List<BookDto> sorted = books == null ? new ArrayList<>() : new ArrayList<>(books);
+            sorted.sort(BY_ID);
+            return sorted;
+        });
+    }
+
+    private BookPageDto slice(String key, Supplier<? extends Collection<BookDto>> loader,
+                              Integer page, int size, String cursor) {
+        if (size < 1 || size > maxPageSize) {
+            throw new InvalidPageRequestException("size must be between 1 and " + maxPageSize);
+        }
+        if (page != null && cursor != null) {
+            throw new InvalidPageRequestException("page and cursor cannot be combined");
+        }
+        if (page != null && page < 0) {
+            throw new InvalidPageRequestException("page must not be negative");
+        }
+
+        Long afterId = cursor == null ? null : decodeCursor(cursor);
+        List<BookDto> sorted = snapshot(key, loader);
+
+        int start;
+        if (afterId != null) {
+            start = indexAfter(sorted, afterId);
+        } else {
+            long offset = (long) (page == null ? 0 : page) * size;
+            start = (int) Math.min(offset, sorted.size());
+        }
+        int end = Math.min(start + size, sorted.size());
+
+        List<BookDto> content = new ArrayList<>(sorted.subList(start, end));
+        String nextCursor = end < sorted.size() && !content.isEmpty()
+                ? encodeCursor(content.get(content.size() - 1).getId())
+                : null;
+
+        return new BookPageDto(content, cursor == null ? (page == null ? 0 : page) : null, size,
+                sorted.size(), nextCursor);
+    }
+
+    // First index whose id is greater than afterId, so cursors stay valid when books are added or removed
+    private static int indexAfter(List<BookDto> sorted, long afterId) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Long id = sorted.get(mid).getId();
+            if (id != null && id <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new InvalidPageRequestException("cursor is invalid");
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException("cursor is invalid");
+        }
+    }
+}
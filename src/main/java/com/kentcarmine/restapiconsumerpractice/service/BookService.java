@@ -5,11 +5,14 @@ import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
 
 import javax.validation.Valid;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface BookService {
 
     Set<BookDto> getAllBooks();
 
+    void streamAllBooks(Consumer<BookDto> bookConsumer);
+
     Set<BookDto> getAllBooksByTitle(String title);
 
     Set<BookDto> getAllBooksByAuthor(String author);
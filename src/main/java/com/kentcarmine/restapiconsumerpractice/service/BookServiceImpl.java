@@ -1,24 +1,51 @@
 package com.kentcarmine.restapiconsumerpractice.service;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
 import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
 import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
 import com.kentcarmine.restapiconsumerpractice.exception.UnknownException;
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamTimers;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 @Validated
 @Service
 public class BookServiceImpl implements BookService {
 
+    private static final ParameterizedTypeReference<Set<BookDto>> BOOK_SET_TYPE =
+            new ParameterizedTypeReference<Set<BookDto>>(){};
+    private static final ObjectReader BOOK_READER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .readerFor(BookDto.class);
+    private static final List<MediaType> ACCEPT_JSON = Collections.singletonList(MediaType.APPLICATION_JSON);
+    private static final BookLookup NOT_FOUND = new BookLookup(HttpStatus.NOT_FOUND.value(), null);
+
+    private final RestTemplate restTemplate;
+    private final UpstreamTimers upstreamTimers;
     private final String apiBaseUrl;
     private final String apiFindAllUrl;
     private final String apiFindAllByTitleUrl;
@@ -28,7 +55,9 @@ public class BookServiceImpl implements BookService {
     private final String apiUpdateUrl;
     private final String apiDeleteUrl;
 
-    public BookServiceImpl(@Value("${restapipractice.api.v1.base_url}") String apiBaseUrl,
+    public BookServiceImpl(RestTemplate restTemplate,
+                           UpstreamTimers upstreamTimers,
+                           @Value("${restapipractice.api.v1.base_url}") String apiBaseUrl,
                            @Value("${restapipractice.books.findAll_url}") String apiFindAllUrl,
                            @Value("${restapipractice.books.findAllByTitle_url}") String apiFindAllByTitleUrl,
                            @Value("${restapipractice.books.findAllByAuthor_url}") String apiFindAllByAuthorUrl,
@@ -36,6 +65,8 @@ public class BookServiceImpl implements BookService {
                            @Value("${restapipractice.books.create_url}") String apiCreateUrl,
                            @Value("${restapipractice.books.update_url}") String apiUpdateUrl,
                            @Value("${restapipractice.books.delete_url}") String apiDeleteUrl ) {
+        this.restTemplate = restTemplate;
+        this.upstreamTimers = upstreamTimers;
         this.apiBaseUrl = apiBaseUrl;
         this.apiFindAllUrl = apiFindAllUrl;
         this.apiFindAllByTitleUrl = apiFindAllByTitleUrl;
@@ -48,67 +79,96 @@ public class BookServiceImpl implements BookService {
 
     @Override
     public Set<BookDto> getAllBooks() {
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<Set<BookDto>> response = restTemplate.exchange(apiFindAllUrl, HttpMethod.GET, null,
-                new ParameterizedTypeReference<Set<BookDto>>(){});
+        ResponseEntity<Set<BookDto>> response = upstreamTimers.exchange(UpstreamOperation.FIND_ALL,
+                () -> restTemplate.exchange(apiFindAllUrl, HttpMethod.GET, null, BOOK_SET_TYPE));
         return response.getBody();
     }
 
+    // Parses the upstream JSON array one book at a time, so memory use does not grow with the catalogue. The upstream
+    // call is timed to its response headers: the books after that arrive at the pace the consumer takes them.
+    @Override
+    public void streamAllBooks(Consumer<BookDto> bookConsumer) {
+        long start = System.nanoTime();
+        boolean[] answered = new boolean[1];
+        try {
+            restTemplate.execute(apiFindAllUrl, HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(ACCEPT_JSON),
+                    response -> {
+                        answered[0] = true;
+                        upstreamTimers.record(UpstreamOperation.FIND_ALL, response.getRawStatusCode(), start);
+                        try (JsonParser parser = BOOK_READER.getFactory().createParser(response.getBody())) {
+                            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                                throw new UnknownException("Expected a JSON array of books from backing API");
+                            }
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                bookConsumer.accept(BOOK_READER.readValue(parser));
+                            }
+                        }
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            if (!answered[0]) {
+                upstreamTimers.recordFailure(UpstreamOperation.FIND_ALL, e, start);
+            }
+            throw e;
+        }
+    }
+
     @Override
     public Set<BookDto> getAllBooksByTitle(String title) {
-        RestTemplate restTemplate = new RestTemplate();
         String url = apiFindAllByTitleUrl + title;
-        ResponseEntity<Set<BookDto>> response = restTemplate.exchange(url, HttpMethod.GET,
-                null, new ParameterizedTypeReference<Set<BookDto>>(){});
+        ResponseEntity<Set<BookDto>> response = upstreamTimers.exchange(UpstreamOperation.FIND_BY_TITLE,
+                () -> restTemplate.exchange(url, HttpMethod.GET, null, BOOK_SET_TYPE));
         return response.getBody();
     }
 
     @Override
     public Set<BookDto> getAllBooksByAuthor(String author) {
-        RestTemplate restTemplate = new RestTemplate();
         String url = apiFindAllByAuthorUrl + author;
-        ResponseEntity<Set<BookDto>> response = restTemplate.exchange(url, HttpMethod.GET,
-                null, new ParameterizedTypeReference<Set<BookDto>>(){});
+        ResponseEntity<Set<BookDto>> response = upstreamTimers.exchange(UpstreamOperation.FIND_BY_AUTHOR,
+                () -> restTemplate.exchange(url, HttpMethod.GET, null, BOOK_SET_TYPE));
         return response.getBody();
     }
 
+    // A 404 is read off the status rather than raised by the template's error handler, which would copy the body
+    // into an HttpClientErrorException only for it to be caught and replaced here
     @Override
     public BookDto getBookById(Long id) {
-        RestTemplate restTemplate = new RestTemplate();
-        String url = apiFindByIdUrl + id;
+        URI uri = restTemplate.getUriTemplateHandler().expand(apiFindByIdUrl + id);
 
-        ResponseEntity<BookDto> response;
+        BookLookup lookup;
         try {
-            response = restTemplate.exchange(url, HttpMethod.GET,
-                    null, new ParameterizedTypeReference<BookDto>(){});
+            lookup = upstreamTimers.record(UpstreamOperation.FIND_BY_ID, () -> lookUpBook(uri), BookLookup::getStatus);
         } catch (HttpClientErrorException e) {
-            if (e.getStatusCode().equals(HttpStatus.NOT_FOUND)) {
-                throw new BookNotFoundException(id);
+            if (e.getStatusCode().equals(HttpStatus.TOO_MANY_REQUESTS)) {
+                // Left as-is so the retry layer can tell a throttled call from a genuinely unexpected one
+                throw e;
             } else {
                 throw new UnknownException();
             }
         }
 
-        return response.getBody();
+        if (lookup == NOT_FOUND) {
+            throw new BookNotFoundException(id);
+        }
+        return lookup.getBook();
     }
 
     @Override
     public BookDto createNewBook(@Valid CreateOrUpdateBookDto createOrUpdateBookDto) {
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<BookDto> response = restTemplate.postForEntity(apiCreateUrl, createOrUpdateBookDto,
-                BookDto.class);
+        ResponseEntity<BookDto> response = upstreamTimers.exchange(UpstreamOperation.CREATE,
+                () -> restTemplate.postForEntity(apiCreateUrl, createOrUpdateBookDto, BookDto.class));
         return response.getBody();
     }
 
     @Override
     public BookDto updateBookWithId(Long id, @Valid CreateOrUpdateBookDto bookDto) {
-        RestTemplate restTemplate = new RestTemplate();
         String url = apiUpdateUrl + id;
 
         ResponseEntity<BookDto> response;
         try {
-            response = restTemplate.exchange(url, HttpMethod.PUT, new HttpEntity(bookDto),
-                    BookDto.class);
+            response = upstreamTimers.exchange(UpstreamOperation.UPDATE,
+                    () -> restTemplate.exchange(url, HttpMethod.PUT, new HttpEntity<>(bookDto), BookDto.class));
         } catch (HttpClientErrorException e) {
             if (e.getStatusCode().equals(HttpStatus.NOT_FOUND)) {
                 throw new BookNotFoundException(id);
@@ -122,12 +182,12 @@ public class BookServiceImpl implements BookService {
 
     @Override
     public BookDto deleteBookById(Long id) {
-        RestTemplate restTemplate = new RestTemplate();
         String url = apiDeleteUrl + id;
 
         ResponseEntity<BookDto> response;
         try {
-            response = restTemplate.exchange(url, HttpMethod.DELETE, null, BookDto.class);
+            response = upstreamTimers.exchange(UpstreamOperation.DELETE,
+                    () -> restTemplate.exchange(url, HttpMethod.DELETE, null, BookDto.class));
         } catch (HttpClientErrorException e) {
             if (e.getStatusCode().equals(HttpStatus.NOT_FOUND)) {
                 throw new BookNotFoundException(id);
@@ -138,4 +198,48 @@ public class BookServiceImpl implements BookService {
 
         return response.getBody();
     }
+
+    // Goes through the template's request factory, so pooling and any interceptors still apply; statuses other than
+    // 404 are left to the template's error handler as before
+    private BookLookup lookUpBook(URI uri) {
+        try {
+            ClientHttpRequest request = restTemplate.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().setAccept(ACCEPT_JSON);
+            try (ClientHttpResponse response = request.execute()) {
+                int status = response.getRawStatusCode();
+                if (status == HttpStatus.NOT_FOUND.value()) {
+                    return NOT_FOUND;
+                }
+                ResponseErrorHandler errorHandler = restTemplate.getErrorHandler();
+                if (errorHandler.hasError(response)) {
+                    errorHandler.handleError(uri, HttpMethod.GET, response);
+                }
+                boolean empty = status == HttpStatus.NO_CONTENT.value() || response.getHeaders().getContentLength() == 0;
+                return new BookLookup(status, empty ? null : BOOK_READER.readValue(response.getBody()));
+            }
+        } catch (JsonProcessingException e) {
+            throw new RestClientException("Error while extracting book from response for \"" + uri + "\"", e);
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+    }
+
+    private static final class BookLookup {
+
+        private final int status;
+        private final BookDto book;
+
+        BookLookup(int status, BookDto book) {
+            this.status = status;
+            this.book = book;
+        }
+
+        int getStatus() {
+            return status;
+        }
+
+        BookDto getBook() {
+            return book;
+        }
+    }
 }
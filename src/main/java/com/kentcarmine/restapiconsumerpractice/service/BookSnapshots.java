@@ -0,0 +1,230 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.service.support.BookSnapshotFile;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Persists the books the proxy has seen to a BookSnapshotFile on a fixed delay and at shutdown, and reads the last
+// snapshot back at startup so the read layers can be warmed before any traffic reaches the upstream. With the
+// catalogue enabled the snapshot is the catalogue itself; otherwise it is every book a read has returned, each with
+// the time the upstream last returned it. Books older than maxAgeMs are dropped, whether restored or held since, and
+// at most maxBooks are kept. The snapshot counts as complete while the books held are those of a full listing no
+// older than maxAgeMs, kept up to date by this instance's own writes.
+@Component
+@ConditionalOnProperty(name = "restapipractice.snapshot.enabled", havingValue = "true")
+public class BookSnapshots implements MeterBinder {
+
+    private final BookSnapshotFile file;
+    private final long maxAgeMs;
+    private final int maxBooks;
+    private final BookCatalogue catalogue;
+    private final Map<Long, BookSnapshotFile.Entry> seen = new ConcurrentHashMap<>();
+
+    // When the full listing that seen still matches was taken, or -1 if seen may be missing books
+    private volatile long listedAtMillis = -1;
+
+    private volatile BookSnapshotFile.Snapshot restored;
+    private boolean restoreAttempted;
+    private long lastWrittenHash;
+    private volatile int lastWrittenSize = -1;
+    private final LongAdder writeFailures = new LongAdder();
+    private final LongAdder rejectedSnapshots = new LongAdder();
+
+    public BookSnapshots(@Value("${restapipractice.snapshot.path:data/books.snapshot}") String path,
+                         @Value("${restapipractice.snapshot.max_age_ms:86400000}") long maxAgeMs,
+                         @Value("${restapipractice.snapshot.max_books:100000}") int maxBooks,
+                         ObjectProvider<BookCatalogue> catalogue) {
+        this.file = new BookSnapshotFile(Paths.get(path));
+        this.maxAgeMs = maxAgeMs;
+        this.maxBooks = maxBooks;
+        this.catalogue = catalogue.getIfAvailable();
+    }
+
+    public long getMaxAgeMs() {
+        return maxAgeMs;
+    }
+
+    // The snapshot left by the previous run less any books older than maxAgeMs, or null if there is none, it is
+    // unreadable, it is older than maxAgeMs or none of its books are young enough
+    public synchronized BookSnapshotFile.Snapshot restore() {
+        if (restoreAttempted) {
+            return restored;
+        }
+        restoreAttempted = true;
+        BookSnapshotFile.Snapshot snapshot;
+        try {
+            snapshot = file.read();
+        } catch (IOException e) {
+            rejectedSnapshots.increment();
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (snapshot == null || now - snapshot.getTakenAtMillis() > maxAgeMs) {
+            return null;
+        }
+        List<BookSnapshotFile.Entry> entries = new ArrayList<>(snapshot.getEntries().size());
+        for (BookSnapshotFile.Entry entry : snapshot.getEntries()) {
+            if (now - entry.getFetchedAtMillis() <= maxAgeMs) {
+                entries.add(entry);
+            }
+        }
+        if (entries.isEmpty()) {
+            return null;
+        }
+        boolean complete = snapshot.isComplete() && entries.size() == snapshot.getEntries().size();
+        snapshot = new BookSnapshotFile.Snapshot(entries, snapshot.getTakenAtMillis(), complete);
+        if (catalogue == null) {
+            for (BookSnapshotFile.Entry entry : entries) {
+                if (seen.size() < maxBooks) {
+                    seen.putIfAbsent(entry.getBook().getId(), entry);
+                }
+            }
+            listedAtMillis = complete && seen.size() == entries.size() ? snapshot.getTakenAtMillis() : -1;
+        }
+        lastWrittenHash = hash(entries);
+        lastWrittenSize = entries.size();
+        restored = snapshot;
+        return snapshot;
+    }
+
+    public void record(BookDto book) {
+        record(book, System.currentTimeMillis());
+    }
+
+    public void recordAll(Collection<BookDto> books) {
+        if (books != null) {
+            long now = System.currentTimeMillis();
+            books.forEach(book -> record(book, now));
+        }
+    }
+
+    // Records a full listing: any book held but missing from it has been deleted upstream
+    public void recordListing(Collection<BookDto> books) {
+        if (books == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Set<Long> ids = new HashSet<>();
+        books.forEach(book -> ids.add(book.getId()));
+        seen.keySet().retainAll(ids);
+        books.forEach(book -> record(book, now));
+        if (books.size() <= maxBooks) {
+            listedAtMillis = now;
+        }
+    }
+
+    private void record(BookDto book, long fetchedAtMillis) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        if (seen.size() >= maxBooks && !seen.containsKey(book.getId())) {
+            listedAtMillis = -1;
+            return;
+        }
+        seen.put(book.getId(), new BookSnapshotFile.Entry(book, fetchedAtMillis));
+    }
+
+    public void forget(Long id) {
+        if (id != null) {
+            seen.remove(id);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${restapipractice.snapshot.interval_ms:60000}",
+            fixedDelayString = "${restapipractice.snapshot.interval_ms:60000}")
+    public void persist() {
+        long takenAtMillis;
+        boolean complete;
+        List<BookSnapshotFile.Entry> entries;
+        if (catalogue != null) {
+            if (!catalogue.isLoaded()) {
+                return;
+            }
+            takenAtMillis = catalogue.getLastRefreshMillis();
+            complete = true;
+            entries = new ArrayList<>();
+            for (BookDto book : catalogue.getAll()) {
+                entries.add(new BookSnapshotFile.Entry(book, takenAtMillis));
+            }
+        } else {
+            long now = System.currentTimeMillis();
+            if (seen.values().removeIf(entry -> now - entry.getFetchedAtMillis() > maxAgeMs)
+                    || now - listedAtMillis > maxAgeMs) {
+                listedAtMillis = -1;
+            }
+            long listedAt = listedAtMillis;
+            complete = listedAt >= 0;
+            takenAtMillis = complete ? listedAt : now;
+            entries = new ArrayList<>(seen.values());
+        }
+
+        synchronized (this) {
+            long hash = hash(entries) + (complete ? 1 : 0);
+            if (entries.size() == lastWrittenSize && hash == lastWrittenHash) {
+                return;
+            }
+            try {
+                file.write(entries, takenAtMillis, complete);
+                lastWrittenHash = hash;
+                lastWrittenSize = entries.size();
+            } catch (IOException e) {
+                writeFailures.increment();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        persist();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("restapipractice.snapshot.restored_books", this,
+                        s -> s.restored == null ? 0 : s.restored.getBooks().size())
+                .description("Books loaded from the snapshot at startup")
+                .register(registry);
+        Gauge.builder("restapipractice.snapshot.books", this, s -> Math.max(s.lastWrittenSize, 0))
+                .description("Books in the snapshot on disk")
+                .register(registry);
+        FunctionCounter.builder("restapipractice.snapshot.write_failures", writeFailures, LongAdder::sum)
+                .description("Snapshots that could not be written")
+                .register(registry);
+        FunctionCounter.builder("restapipractice.snapshot.rejected", rejectedSnapshots, LongAdder::sum)
+                .description("Snapshots ignored at startup because they were unreadable or failed their checksum")
+                .register(registry);
+    }
+
+    // Order-independent, so an unchanged set of books is not rewritten just because it was listed differently. Fetch
+    // times count too, so a book read again is rewritten with its new age.
+    private static long hash(Collection<BookSnapshotFile.Entry> entries) {
+        long hash = 0;
+        for (BookSnapshotFile.Entry entry : entries) {
+            BookDto book = entry.getBook();
+            hash += Objects.hash(book.getId(), book.getTitle(), book.getAuthor(), entry.getFetchedAtMillis())
+                    * 0x9e3779b97f4a7c15L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,122 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Read-through cache for getBookById. Writes made through this service invalidate the affected id.
+public class CachingBookService implements BookService {
+
+    private final BookService delegate;
+    private final Cache<Long, BookDto> bookCache;
+    private final Cache<Long, Boolean> notFoundCache;
+
+    public CachingBookService(BookService delegate, long maxSize, Duration ttl, Duration negativeTtl) {
+        this.delegate = delegate;
+        this.bookCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.notFoundCache = negativeTtl.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
+    }
+
+    public Cache<Long, BookDto> getBookCache() {
+        return bookCache;
+    }
+
+    public Cache<Long, Boolean> getNotFoundCache() {
+        return notFoundCache;
+    }
+
+    @Override
+    public Set<BookDto> getAllBooks() {
+        return delegate.getAllBooks();
+    }
+
+    @Override
+    public void streamAllBooks(Consumer<BookDto> bookConsumer) {
+        delegate.streamAllBooks(bookConsumer);
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByTitle(String title) {
+        return delegate.getAllBooksByTitle(title);
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByAuthor(String author) {
+        return delegate.getAllBooksByAuthor(author);
+    }
+
+    // Loaded inside the cache's own compute, so an invalidation that arrives mid-load waits for it and then discards
+    // what it loaded rather than being overwritten by a book read before the write. The not-found mark is set inside
+    // the same compute, so invalidate() clears it the same way.
+    @Override
+    public BookDto getBookById(Long id) {
+        BookDto cached = bookCache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (notFoundCache != null && notFoundCache.getIfPresent(id) != null) {
+            throw new BookNotFoundException(id);
+        }
+
+        return bookCache.get(id, key -> {
+            try {
+                return delegate.getBookById(key);
+            } catch (BookNotFoundException e) {
+                if (notFoundCache != null) {
+                    notFoundCache.put(key, Boolean.TRUE);
+                }
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public BookDto createNewBook(CreateOrUpdateBookDto createOrUpdateBookDto) {
+        BookDto created = delegate.createNewBook(createOrUpdateBookDto);
+        if (created != null && created.getId() != null) {
+            invalidate(created.getId());
+        }
+        return created;
+    }
+
+    @Override
+    public BookDto deleteBookById(Long id) {
+        try {
+            return delegate.deleteBookById(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public BookDto updateBookWithId(Long id, CreateOrUpdateBookDto bookDto) {
+        try {
+            return delegate.updateBookWithId(id, bookDto);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    // The book cache first: that waits out any load of this id, including its not-found mark
+    private void invalidate(Long id) {
+        bookCache.invalidate(id);
+        if (notFoundCache != null) {
+            notFoundCache.invalidate(id);
+        }
+    }
+}
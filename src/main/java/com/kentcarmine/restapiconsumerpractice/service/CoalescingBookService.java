@@ -0,0 +1,76 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.service.support.SingleFlight;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Shares one upstream read between concurrent callers asking for the same id, title, author or full listing
+public class CoalescingBookService implements BookService {
+
+    private static final String FIND_ALL_KEY = "findAll";
+
+    private final BookService delegate;
+    private final SingleFlight<String, Set<BookDto>> bookSetFlights;
+    private final SingleFlight<Long, BookDto> bookFlights;
+
+    public CoalescingBookService(BookService delegate, long timeoutMs) {
+        this.delegate = delegate;
+        this.bookSetFlights = new SingleFlight<>(timeoutMs);
+        this.bookFlights = new SingleFlight<>(timeoutMs);
+    }
+
+    public int getInFlightCount() {
+        return bookSetFlights.getInFlightCount() + bookFlights.getInFlightCount();
+    }
+
+    public long getCoalescedCount() {
+        return bookSetFlights.getCoalescedCount() + bookFlights.getCoalescedCount();
+    }
+
+    public int getWaiterCount() {
+        return bookSetFlights.getWaiterCount() + bookFlights.getWaiterCount();
+    }
+
+    @Override
+    public Set<BookDto> getAllBooks() {
+        return bookSetFlights.execute(FIND_ALL_KEY, delegate::getAllBooks);
+    }
+
+    @Override
+    public void streamAllBooks(Consumer<BookDto> bookConsumer) {
+        delegate.streamAllBooks(bookConsumer);
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByTitle(String title) {
+        return bookSetFlights.execute("title:" + title, () -> delegate.getAllBooksByTitle(title));
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByAuthor(String author) {
+        return bookSetFlights.execute("author:" + author, () -> delegate.getAllBooksByAuthor(author));
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        return bookFlights.execute(id, () -> delegate.getBookById(id));
+    }
+
+    @Override
+    public BookDto createNewBook(CreateOrUpdateBookDto createOrUpdateBookDto) {
+        return delegate.createNewBook(createOrUpdateBookDto);
+    }
+
+    @Override
+    public BookDto deleteBookById(Long id) {
+        return delegate.deleteBookById(id);
+    }
+
+    @Override
+    public BookDto updateBookWithId(Long id, CreateOrUpdateBookDto bookDto) {
+        return delegate.updateBookWithId(id, bookDto);
+    }
+}
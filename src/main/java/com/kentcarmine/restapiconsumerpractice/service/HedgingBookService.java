@@ -0,0 +1,155 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.UnknownException;
+import com.kentcarmine.restapiconsumerpractice.service.support.LatencyWindow;
+import com.kentcarmine.restapiconsumerpractice.service.support.RetryBudget;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Hedges getBookById: if the upstream has not answered after the hedge delay, an identical second read is sent and
+// whichever answers first wins; the other is cancelled. The delay tracks a percentile of recent read latencies (never
+// below minDelayMs), and hedges are paid for from a token bucket so they stay a bounded fraction of traffic.
+public class HedgingBookService implements BookService {
+
+    private final BookService delegate;
+    private final ExecutorService executor;
+    private final long minDelayNanos;
+    private final LatencyWindow latencies;
+    private final RetryBudget hedgeBudget;
+
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    public HedgingBookService(BookService delegate, ExecutorService executor, long minDelayMs,
+                              LatencyWindow latencies, RetryBudget hedgeBudget) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+        this.latencies = latencies;
+        this.hedgeBudget = hedgeBudget;
+    }
+
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    // Hedged reads that answered before the original one
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    public double getHedgeDelayMillis() {
+        return hedgeDelayNanos() / 1_000_000.0;
+    }
+
+    @Override
+    public Set<BookDto> getAllBooks() {
+        return delegate.getAllBooks();
+    }
+
+    @Override
+    public void streamAllBooks(Consumer<BookDto> bookConsumer) {
+        delegate.streamAllBooks(bookConsumer);
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByTitle(String title) {
+        return delegate.getAllBooksByTitle(title);
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByAuthor(String author) {
+        return delegate.getAllBooksByAuthor(author);
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        return hedged(() -> delegate.getBookById(id));
+    }
+
+    @Override
+    public BookDto createNewBook(CreateOrUpdateBookDto createOrUpdateBookDto) {
+        return delegate.createNewBook(createOrUpdateBookDto);
+    }
+
+    @Override
+    public BookDto deleteBookById(Long id) {
+        return delegate.deleteBookById(id);
+    }
+
+    @Override
+    public BookDto updateBookWithId(Long id, CreateOrUpdateBookDto bookDto) {
+        return delegate.updateBookWithId(id, bookDto);
+    }
+
+    private <T> T hedged(Supplier<T> call) {
+        hedgeBudget.recordRequest();
+        long startNanos = System.nanoTime();
+        ExecutorCompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<T>> attempts = new ArrayList<>(2);
+        attempts.add(completionService.submit(call::get));
+
+        try {
+            Future<T> done = completionService.poll(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            if (done == null && hedgeBudget.tryAcquireRetry()) {
+                hedges.increment();
+                attempts.add(completionService.submit(call::get));
+            }
+
+            // A failed attempt only decides the outcome once no other attempt is left to succeed
+            ExecutionException firstFailure = null;
+            for (int pending = attempts.size(); pending > 0; pending--) {
+                if (done == null) {
+                    done = completionService.take();
+                }
+                try {
+                    T result = done.get();
+                    latencies.record(System.nanoTime() - startNanos);
+                    if (done != attempts.get(0)) {
+                        hedgeWins.increment();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    if (firstFailure == null) {
+                        firstFailure = e;
+                    }
+                    done = null;
+                }
+            }
+            throw unwrap(firstFailure);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnknownException("Interrupted while waiting for the backing API");
+        } finally {
+            for (Future<T> attempt : attempts) {
+                attempt.cancel(true);
+            }
+        }
+    }
+
+    private long hedgeDelayNanos() {
+        return Math.max(minDelayNanos, latencies.getPercentileNanos());
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new UnknownException(String.valueOf(cause));
+    }
+}
@@ -0,0 +1,96 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookSearchMode;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Answers listing and title/author reads from the local BookCatalogue once it has loaded. Until then, and for
+// by-id misses, reads go to the delegate. Writes go to the delegate and are then applied to the catalogue.
+public class IndexedBookService implements BookService {
+
+    private final BookService delegate;
+    private final BookCatalogue catalogue;
+
+    public IndexedBookService(BookService delegate, BookCatalogue catalogue) {
+        this.delegate = delegate;
+        this.catalogue = catalogue;
+    }
+
+    @Override
+    public Set<BookDto> getAllBooks() {
+        return catalogue.isLoaded() ? catalogue.getAll() : delegate.getAllBooks();
+    }
+
+    @Override
+    public void streamAllBooks(Consumer<BookDto> bookConsumer) {
+        if (catalogue.isLoaded()) {
+            catalogue.getAll().forEach(bookConsumer);
+        } else {
+            delegate.streamAllBooks(bookConsumer);
+        }
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByTitle(String title) {
+        return catalogue.isLoaded() ? catalogue.findByTitle(title, BookSearchMode.EXACT)
+                : delegate.getAllBooksByTitle(title);
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByAuthor(String author) {
+        return catalogue.isLoaded() ? catalogue.findByAuthor(author, BookSearchMode.EXACT)
+                : delegate.getAllBooksByAuthor(author);
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        BookDto book = catalogue.get(id);
+        if (book != null) {
+            return book;
+        }
+
+        // Books created upstream since the last refresh are not in the catalogue yet
+        book = delegate.getBookById(id);
+        if (catalogue.isLoaded()) {
+            catalogue.put(book);
+        }
+        return book;
+    }
+
+    @Override
+    public BookDto createNewBook(CreateOrUpdateBookDto createOrUpdateBookDto) {
+        BookDto created = delegate.createNewBook(createOrUpdateBookDto);
+        catalogue.put(created);
+        return created;
+    }
+
+    @Override
+    public BookDto deleteBookById(Long id) {
+        BookDto deleted;
+        try {
+            deleted = delegate.deleteBookById(id);
+        } catch (BookNotFoundException e) {
+            catalogue.remove(id);
+            throw e;
+        }
+        catalogue.remove(id);
+        return deleted;
+    }
+
+    @Override
+    public BookDto updateBookWithId(Long id, CreateOrUpdateBookDto bookDto) {
+        BookDto updated;
+        try {
+            updated = delegate.updateBookWithId(id, bookDto);
+        } catch (BookNotFoundException e) {
+            catalogue.remove(id);
+            throw e;
+        }
+        catalogue.put(updated);
+        return updated;
+    }
+}
@@ -0,0 +1,15 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import java.io.IOException;
+
+// An IOException is always the handler's own, such as the client going away; upstream failures are unchecked
+public interface PassThroughBookService {
+
+    void getAllBooks(UpstreamBodyHandler handler) throws IOException;
+
+    void getAllBooksByTitle(String title, UpstreamBodyHandler handler) throws IOException;
+
+    void getAllBooksByAuthor(String author, UpstreamBodyHandler handler) throws IOException;
+
+    void getBookById(Long id, UpstreamBodyHandler handler) throws IOException;
+}
@@ -0,0 +1,213 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.exception.UpstreamUnavailableException;
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamTimers;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Hands upstream read responses to an UpstreamBodyHandler without parsing them. Error responses are passed on too,
+// except a 404 for a single book, which becomes BookNotFoundException like everywhere else, and a failure to reach
+// the upstream at all, which becomes UpstreamUnavailableException.
+//
+// The upstream's part of a call ends when its response headers arrive: that is what is timed and, with resilience
+// enabled, what holds the operation's bulkhead and circuit breaker permits shared with ResilientBookService. The body
+// is copied at the client's pace, as in ResilientBookService.streamAllBooks. A failure to write to the client is the
+// handler's IOException, not an upstream failure.
+@Service
+@ConditionalOnProperty(name = "restapipractice.passthrough.enabled", havingValue = "true")
+public class PassThroughBookServiceImpl implements PassThroughBookService {
+
+    private static final RequestCallback ACCEPT_JSON = request ->
+            request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+
+    private final RestTemplate restTemplate;
+    private final UpstreamTimers upstreamTimers;
+    private final String apiFindAllUrl;
+    private final String apiFindAllByTitleUrl;
+    private final String apiFindAllByAuthorUrl;
+    private final String apiFindByIdUrl;
+    private final Map<UpstreamOperation, CircuitBreaker> circuitBreakers = new EnumMap<>(UpstreamOperation.class);
+    private final Map<UpstreamOperation, Bulkhead> bulkheads = new EnumMap<>(UpstreamOperation.class);
+
+    public PassThroughBookServiceImpl(RestTemplate restTemplate,
+                                      UpstreamTimers upstreamTimers,
+                                      CircuitBreakerRegistry upstreamCircuitBreakerRegistry,
+                                      BulkheadRegistry upstreamBulkheadRegistry,
+                                      @Value("${restapipractice.resilience.enabled:false}") boolean resilienceEnabled,
+                                      @Value("${restapipractice.books.findAll_url}") String apiFindAllUrl,
+                                      @Value("${restapipractice.books.findAllByTitle_url}") String apiFindAllByTitleUrl,
+                                      @Value("${restapipractice.books.findAllByAuthor_url}") String apiFindAllByAuthorUrl,
+                                      @Value("${restapipractice.books.findById_url}") String apiFindByIdUrl) {
+        this.restTemplate = restTemplate;
+        this.upstreamTimers = upstreamTimers;
+        this.apiFindAllUrl = apiFindAllUrl;
+        this.apiFindAllByTitleUrl = apiFindAllByTitleUrl;
+        this.apiFindAllByAuthorUrl = apiFindAllByAuthorUrl;
+        this.apiFindByIdUrl = apiFindByIdUrl;
+        if (resilienceEnabled) {
+            for (UpstreamOperation operation : UpstreamOperation.values()) {
+                circuitBreakers.put(operation, upstreamCircuitBreakerRegistry.circuitBreaker(operation.getTagValue()));
+                bulkheads.put(operation, upstreamBulkheadRegistry.bulkhead(operation.getTagValue()));
+            }
+        }
+    }
+
+    @Override
+    public void getAllBooks(UpstreamBodyHandler handler) throws IOException {
+        pass(UpstreamOperation.FIND_ALL, apiFindAllUrl, null, handler);
+    }
+
+    @Override
+    public void getAllBooksByTitle(String title, UpstreamBodyHandler handler) throws IOException {
+        pass(UpstreamOperation.FIND_BY_TITLE, apiFindAllByTitleUrl + title, null, handler);
+    }
+
+    @Override
+    public void getAllBooksByAuthor(String author, UpstreamBodyHandler handler) throws IOException {
+        pass(UpstreamOperation.FIND_BY_AUTHOR, apiFindAllByAuthorUrl + author, null, handler);
+    }
+
+    @Override
+    public void getBookById(Long id, UpstreamBodyHandler handler) throws IOException {
+        pass(UpstreamOperation.FIND_BY_ID, apiFindByIdUrl + id, id, handler);
+    }
+
+    // bookId is the book a 404 means is missing, or null if a 404 should be passed on like any other response
+    private void pass(UpstreamOperation operation, String url, Long bookId, UpstreamBodyHandler handler)
+            throws IOException {
+        Exchange exchange = new Exchange(operation);
+        try {
+            restTemplate.execute(url, HttpMethod.GET, ACCEPT_JSON, response -> {
+                exchange.answered(response.getRawStatusCode());
+                HttpHeaders headers = response.getHeaders();
+                UpstreamBody body = new UpstreamBody(response.getBody());
+                try {
+                    handler.handle(response.getRawStatusCode(), headers.getContentType(), headers.getContentLength(),
+                            body);
+                } catch (IOException e) {
+                    if (body.failed) {
+                        throw e;
+                    }
+                    // unchecked so RestTemplate does not take it for an upstream I/O error
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (HttpStatusCodeException e) {
+            exchange.failed(e);
+            if (bookId != null && e.getRawStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                throw new BookNotFoundException(bookId);
+            }
+            byte[] body = e.getResponseBodyAsByteArray();
+            HttpHeaders headers = e.getResponseHeaders();
+            handler.handle(e.getRawStatusCode(), headers == null ? null : headers.getContentType(), body.length,
+                    new ByteArrayInputStream(body));
+        } catch (ResourceAccessException e) {
+            exchange.failed(e);
+            throw new UpstreamUnavailableException();
+        } catch (RuntimeException e) {
+            exchange.failed(e);
+            throw e;
+        }
+    }
+
+    // One upstream call from its start to its response headers; whichever of answered or failed comes first counts
+    private final class Exchange {
+
+        private final UpstreamOperation operation;
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final long start;
+        private boolean done;
+
+        Exchange(UpstreamOperation operation) {
+            this.operation = operation;
+            this.circuitBreaker = circuitBreakers.get(operation);
+            this.bulkhead = bulkheads.get(operation);
+            if (circuitBreaker != null) {
+                ResilientBookService.acquirePermissions(operation, circuitBreaker, bulkhead);
+            }
+            this.start = System.nanoTime();
+        }
+
+        void answered(int status) {
+            if (done) {
+                return;
+            }
+            done = true;
+            upstreamTimers.record(operation, status, start);
+            if (circuitBreaker != null) {
+                bulkhead.onComplete();
+                circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void failed(RuntimeException e) {
+            if (done) {
+                return;
+            }
+            done = true;
+            upstreamTimers.recordFailure(operation, e, start);
+            if (circuitBreaker != null) {
+                bulkhead.onComplete();
+                circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            }
+        }
+    }
+
+    // The upstream response body, remembering whether reading it failed so that failure is not blamed on the client
+    private static final class UpstreamBody extends FilterInputStream {
+
+        private boolean failed;
+
+        UpstreamBody(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+    }
+}
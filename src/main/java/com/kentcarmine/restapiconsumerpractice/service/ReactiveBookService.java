@@ -0,0 +1,25 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+public interface ReactiveBookService {
+
+    Flux<BookDto> getAllBooks();
+
+    Flux<BookDto> getAllBooksByTitle(String title);
+
+    Flux<BookDto> getAllBooksByAuthor(String author);
+
+    Mono<BookDto> getBookById(Long id);
+
+    Mono<BookDto> createNewBook(@Valid CreateOrUpdateBookDto createOrUpdateBookDto);
+
+    Mono<BookDto> deleteBookById(Long id);
+
+    Mono<BookDto> updateBookWithId(Long id, @Valid CreateOrUpdateBookDto bookDto);
+}
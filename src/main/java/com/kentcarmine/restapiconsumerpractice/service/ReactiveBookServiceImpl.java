@@ -0,0 +1,116 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.exception.UnknownException;
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamTimers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+@Validated
+@Service
+@ConditionalOnProperty(name = "restapipractice.reactive.enabled", havingValue = "true")
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    private final WebClient webClient;
+    private final String apiFindAllUrl;
+    private final String apiFindAllByTitleUrl;
+    private final String apiFindAllByAuthorUrl;
+    private final String apiFindByIdUrl;
+    private final String apiCreateUrl;
+    private final String apiUpdateUrl;
+    private final String apiDeleteUrl;
+
+    public ReactiveBookServiceImpl(WebClient upstreamWebClient,
+                                   @Value("${restapipractice.books.findAll_url}") String apiFindAllUrl,
+                                   @Value("${restapipractice.books.findAllByTitle_url}") String apiFindAllByTitleUrl,
+                                   @Value("${restapipractice.books.findAllByAuthor_url}") String apiFindAllByAuthorUrl,
+                                   @Value("${restapipractice.books.findById_url}") String apiFindByIdUrl,
+                                   @Value("${restapipractice.books.create_url}") String apiCreateUrl,
+                                   @Value("${restapipractice.books.update_url}") String apiUpdateUrl,
+                                   @Value("${restapipractice.books.delete_url}") String apiDeleteUrl) {
+        this.webClient = upstreamWebClient;
+        this.apiFindAllUrl = apiFindAllUrl;
+        this.apiFindAllByTitleUrl = apiFindAllByTitleUrl;
+        this.apiFindAllByAuthorUrl = apiFindAllByAuthorUrl;
+        this.apiFindByIdUrl = apiFindByIdUrl;
+        this.apiCreateUrl = apiCreateUrl;
+        this.apiUpdateUrl = apiUpdateUrl;
+        this.apiDeleteUrl = apiDeleteUrl;
+    }
+
+    @Override
+    public Flux<BookDto> getAllBooks() {
+        return webClient.get().uri(apiFindAllUrl)
+                .attribute(UpstreamTimers.OPERATION_ATTRIBUTE, UpstreamOperation.FIND_ALL)
+                .retrieve()
+                .bodyToFlux(BookDto.class);
+    }
+
+    @Override
+    public Flux<BookDto> getAllBooksByTitle(String title) {
+        return webClient.get().uri(apiFindAllByTitleUrl + title)
+                .attribute(UpstreamTimers.OPERATION_ATTRIBUTE, UpstreamOperation.FIND_BY_TITLE)
+                .retrieve()
+                .bodyToFlux(BookDto.class);
+    }
+
+    @Override
+    public Flux<BookDto> getAllBooksByAuthor(String author) {
+        return webClient.get().uri(apiFindAllByAuthorUrl + author)
+                .attribute(UpstreamTimers.OPERATION_ATTRIBUTE, UpstreamOperation.FIND_BY_AUTHOR)
+                .retrieve()
+                .bodyToFlux(BookDto.class);
+    }
+
+    @Override
+    public Mono<BookDto> getBookById(Long id) {
+        return webClient.get().uri(apiFindByIdUrl + id)
+                .attribute(UpstreamTimers.OPERATION_ATTRIBUTE, UpstreamOperation.FIND_BY_ID)
+                .retrieve()
+                .onStatus(status -> status == HttpStatus.NOT_FOUND,
+                        response -> Mono.error(new BookNotFoundException(id)))
+                .onStatus(HttpStatus::is4xxClientError,
+                        response -> Mono.error(new UnknownException()))
+                .bodyToMono(BookDto.class);
+    }
+
+    @Override
+    public Mono<BookDto> createNewBook(@Valid CreateOrUpdateBookDto createOrUpdateBookDto) {
+        return webClient.post().uri(apiCreateUrl)
+                .attribute(UpstreamTimers.OPERATION_ATTRIBUTE, UpstreamOperation.CREATE)
+                .bodyValue(createOrUpdateBookDto)
+                .retrieve()
+                .bodyToMono(BookDto.class);
+    }
+
+    @Override
+    public Mono<BookDto> updateBookWithId(Long id, @Valid CreateOrUpdateBookDto bookDto) {
+        return webClient.put().uri(apiUpdateUrl + id)
+                .attribute(UpstreamTimers.OPERATION_ATTRIBUTE, UpstreamOperation.UPDATE)
+                .bodyValue(bookDto)
+                .retrieve()
+                .onStatus(status -> status == HttpStatus.NOT_FOUND,
+                        response -> Mono.error(new BookNotFoundException(id)))
+                .bodyToMono(BookDto.class);
+    }
+
+    @Override
+    public Mono<BookDto> deleteBookById(Long id) {
+        return webClient.delete().uri(apiDeleteUrl + id)
+                .attribute(UpstreamTimers.OPERATION_ATTRIBUTE, UpstreamOperation.DELETE)
+                .retrieve()
+                .onStatus(status -> status == HttpStatus.NOT_FOUND,
+                        response -> Mono.error(new BookNotFoundException(id)))
+                .bodyToMono(BookDto.class);
+    }
+}
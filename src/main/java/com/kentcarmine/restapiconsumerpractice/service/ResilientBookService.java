@@ -0,0 +1,151 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.UnknownException;
+import com.kentcarmine.restapiconsumerpractice.exception.UpstreamUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Guards each upstream operation with its own circuit breaker and bulkhead, so a slow or failing upstream is answered
+// with UpstreamUnavailableException straight away instead of holding a request thread until the socket times out.
+public class ResilientBookService implements BookService {
+
+    private final BookService delegate;
+    private final Map<UpstreamOperation, CircuitBreaker> circuitBreakers = new EnumMap<>(UpstreamOperation.class);
+    private final Map<UpstreamOperation, Bulkhead> bulkheads = new EnumMap<>(UpstreamOperation.class);
+
+    public ResilientBookService(BookService delegate, CircuitBreakerRegistry circuitBreakerRegistry,
+                                BulkheadRegistry bulkheadRegistry) {
+        this.delegate = delegate;
+        for (UpstreamOperation operation : UpstreamOperation.values()) {
+            circuitBreakers.put(operation, circuitBreakerRegistry.circuitBreaker(operation.getTagValue()));
+            bulkheads.put(operation, bulkheadRegistry.bulkhead(operation.getTagValue()));
+        }
+    }
+
+    // Only failures that say something about the upstream's health count against the circuit breaker
+    public static boolean isUpstreamFailure(Throwable e) {
+        return e instanceof HttpServerErrorException
+                || e instanceof ResourceAccessException
+                || e instanceof UnknownException;
+    }
+
+    @Override
+    public Set<BookDto> getAllBooks() {
+        return call(UpstreamOperation.FIND_ALL, delegate::getAllBooks);
+    }
+
+    // The stream is paced by the client, so only the wait for the first book is the upstream's doing: the permits are
+    // handed back and the call recorded at that point, and a slow client neither holds the bulkhead nor counts as a
+    // slow upstream call. Failures after the first book are left uncounted for the same reason.
+    @Override
+    public void streamAllBooks(Consumer<BookDto> bookConsumer) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(UpstreamOperation.FIND_ALL);
+        Bulkhead bulkhead = bulkheads.get(UpstreamOperation.FIND_ALL);
+        acquirePermissions(UpstreamOperation.FIND_ALL, circuitBreaker, bulkhead);
+
+        long start = System.nanoTime();
+        boolean[] firstBookSeen = new boolean[1];
+        Runnable firstBook = () -> {
+            if (!firstBookSeen[0]) {
+                firstBookSeen[0] = true;
+                bulkhead.onComplete();
+                circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+        try {
+            delegate.streamAllBooks(book -> {
+                firstBook.run();
+                bookConsumer.accept(book);
+            });
+            firstBook.run();
+        } catch (RuntimeException e) {
+            if (!firstBookSeen[0]) {
+                bulkhead.onComplete();
+                circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByTitle(String title) {
+        return call(UpstreamOperation.FIND_BY_TITLE, () -> delegate.getAllBooksByTitle(title));
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByAuthor(String author) {
+        return call(UpstreamOperation.FIND_BY_AUTHOR, () -> delegate.getAllBooksByAuthor(author));
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        return call(UpstreamOperation.FIND_BY_ID, () -> delegate.getBookById(id));
+    }
+
+    @Override
+    public BookDto createNewBook(CreateOrUpdateBookDto createOrUpdateBookDto) {
+        return call(UpstreamOperation.CREATE, () -> delegate.createNewBook(createOrUpdateBookDto));
+    }
+
+    @Override
+    public BookDto deleteBookById(Long id) {
+        return call(UpstreamOperation.DELETE, () -> delegate.deleteBookById(id));
+    }
+
+    @Override
+    public BookDto updateBookWithId(Long id, CreateOrUpdateBookDto bookDto) {
+        return call(UpstreamOperation.UPDATE, () -> delegate.updateBookWithId(id, bookDto));
+    }
+
+    private <T> T call(UpstreamOperation operation, Supplier<T> supplier) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(operation);
+        Bulkhead bulkhead = bulkheads.get(operation);
+        try {
+            return circuitBreaker.executeSupplier(Bulkhead.decorateSupplier(bulkhead, supplier));
+        } catch (CallNotPermittedException e) {
+            throw circuitOpen(operation, circuitBreaker);
+        } catch (BulkheadFullException e) {
+            throw bulkheadFull(operation);
+        }
+    }
+
+    // For calls that hand the permits back themselves, with bulkhead.onComplete() and circuitBreaker.onSuccess/onError
+    static void acquirePermissions(UpstreamOperation operation, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (CallNotPermittedException e) {
+            throw circuitOpen(operation, circuitBreaker);
+        }
+        try {
+            bulkhead.acquirePermission();
+        } catch (BulkheadFullException e) {
+            circuitBreaker.releasePermission();
+            throw bulkheadFull(operation);
+        }
+    }
+
+    private static UpstreamUnavailableException circuitOpen(UpstreamOperation operation, CircuitBreaker circuitBreaker) {
+        return new UpstreamUnavailableException("Backing API " + operation.getTagValue()
+                + " calls are failing or slow; circuit is " + circuitBreaker.getState());
+    }
+
+    private static UpstreamUnavailableException bulkheadFull(UpstreamOperation operation) {
+        return new UpstreamUnavailableException("Too many concurrent backing API " + operation.getTagValue()
+                + " calls");
+    }
+}
@@ -0,0 +1,161 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.service.support.RetryBudget;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Retries idempotent upstream calls that failed transiently (I/O errors, 5xx other than 501, 429) with exponential
+// backoff and full jitter. Reads are always retried, PUT/DELETE only when retryWrites is set, creates never.
+// Every retry must also be paid for from the shared RetryBudget.
+public class RetryingBookService implements BookService {
+
+    private final BookService delegate;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final boolean retryWrites;
+    private final RetryBudget retryBudget;
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    public RetryingBookService(BookService delegate, int maxAttempts, long initialBackoffMs, long maxBackoffMs,
+                               boolean retryWrites, RetryBudget retryBudget) {
+        this.delegate = delegate;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retryWrites = retryWrites;
+        this.retryBudget = retryBudget;
+    }
+
+    public static boolean isRetryable(Throwable e) {
+        if (e instanceof ResourceAccessException) {
+            return true;
+        } else if (e instanceof HttpServerErrorException) {
+            return ((HttpServerErrorException) e).getStatusCode() != HttpStatus.NOT_IMPLEMENTED;
+        } else if (e instanceof HttpClientErrorException) {
+            return ((HttpClientErrorException) e).getStatusCode() == HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return false;
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    // Calls that failed at first but succeeded on a retry
+    public long getRecoveredCount() {
+        return recovered.sum();
+    }
+
+    public long getBudgetExhaustedCount() {
+        return budgetExhausted.sum();
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    @Override
+    public Set<BookDto> getAllBooks() {
+        return withRetries(delegate::getAllBooks, () -> true);
+    }
+
+    // Only retried while no book has reached the consumer, so a retry never delivers a book twice
+    @Override
+    public void streamAllBooks(Consumer<BookDto> bookConsumer) {
+        AtomicBoolean delivered = new AtomicBoolean();
+        withRetries(() -> {
+            delegate.streamAllBooks(book -> {
+                delivered.set(true);
+                bookConsumer.accept(book);
+            });
+            return null;
+        }, () -> !delivered.get());
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByTitle(String title) {
+        return withRetries(() -> delegate.getAllBooksByTitle(title), () -> true);
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByAuthor(String author) {
+        return withRetries(() -> delegate.getAllBooksByAuthor(author), () -> true);
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        return withRetries(() -> delegate.getBookById(id), () -> true);
+    }
+
+    @Override
+    public BookDto createNewBook(CreateOrUpdateBookDto createOrUpdateBookDto) {
+        return delegate.createNewBook(createOrUpdateBookDto);
+    }
+
+    @Override
+    public BookDto deleteBookById(Long id) {
+        return withRetries(() -> delegate.deleteBookById(id), () -> retryWrites);
+    }
+
+    @Override
+    public BookDto updateBookWithId(Long id, CreateOrUpdateBookDto bookDto) {
+        return withRetries(() -> delegate.updateBookWithId(id, bookDto), () -> retryWrites);
+    }
+
+    private <T> T withRetries(Supplier<T> call, BooleanSupplier canRetry) {
+        retryBudget.recordRequest();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = call.get();
+                if (attempt > 1) {
+                    recovered.increment();
+                }
+                return result;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isRetryable(e) || !canRetry.getAsBoolean()) {
+                    throw e;
+                }
+                if (!retryBudget.tryAcquireRetry()) {
+                    budgetExhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                if (!sleep(backoffMs(attempt))) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Full jitter: a random delay between 0 and the exponential backoff for this attempt
+    private long backoffMs(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Records every book a read or write returns in BookSnapshots, and forgets deleted and missing ones, so the next
+// snapshot holds what this instance has served
+public class SnapshottingBookService implements BookService {
+
+    private final BookService delegate;
+    private final BookSnapshots snapshots;
+
+    public SnapshottingBookService(BookService delegate, BookSnapshots snapshots) {
+        this.delegate = delegate;
+        this.snapshots = snapshots;
+    }
+
+    @Override
+    public Set<BookDto> getAllBooks() {
+        Set<BookDto> books = delegate.getAllBooks();
+        snapshots.recordListing(books);
+        return books;
+    }
+
+    // Not recorded as a full listing: that would mean holding the whole stream just to compare it at the end
+    @Override
+    public void streamAllBooks(Consumer<BookDto> bookConsumer) {
+        delegate.streamAllBooks(book -> {
+            snapshots.record(book);
+            bookConsumer.accept(book);
+        });
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByTitle(String title) {
+        Set<BookDto> books = delegate.getAllBooksByTitle(title);
+        snapshots.recordAll(books);
+        return books;
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByAuthor(String author) {
+        Set<BookDto> books = delegate.getAllBooksByAuthor(author);
+        snapshots.recordAll(books);
+        return books;
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        BookDto book;
+        try {
+            book = delegate.getBookById(id);
+        } catch (BookNotFoundException e) {
+            snapshots.forget(id);
+            throw e;
+        }
+        snapshots.record(book);
+        return book;
+    }
+
+    @Override
+    public BookDto createNewBook(CreateOrUpdateBookDto createOrUpdateBookDto) {
+        BookDto created = delegate.createNewBook(createOrUpdateBookDto);
+        snapshots.record(created);
+        return created;
+    }
+
+    @Override
+    public BookDto deleteBookById(Long id) {
+        try {
+            return delegate.deleteBookById(id);
+        } finally {
+            snapshots.forget(id);
+        }
+    }
+
+    @Override
+    public BookDto updateBookWithId(Long id, CreateOrUpdateBookDto bookDto) {
+        BookDto updated;
+        try {
+            updated = delegate.updateBookWithId(id, bookDto);
+        } finally {
+            snapshots.forget(id);
+        }
+        snapshots.record(updated);
+        return updated;
+    }
+}
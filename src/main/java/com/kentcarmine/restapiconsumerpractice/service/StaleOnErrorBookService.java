@@ -0,0 +1,256 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.service.support.BookSnapshotFile;
+import com.kentcarmine.restapiconsumerpractice.service.support.Staleness;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Keeps the last good answer to each read and falls back to it when the upstream fails, as long as it is no older
+// than staleIfErrorMs. Answers younger than freshMs are served without asking the upstream; for staleWhileRevalidateMs
+// after that they are served at once while a single background refresh per key updates the store. Stale answers are
+// marked with Staleness so the response can carry a Warning.
+//
+// A key already in the store is only ever reloaded through the revalidator, which sits beneath any cache, so a
+// revalidation reaches the upstream and the stored time is when the upstream answered.
+public class StaleOnErrorBookService implements BookService {
+
+    private static final String ALL_BOOKS_KEY = "all";
+    private static final int ID_GENERATION_STRIPES = 64;
+
+    private final BookService delegate;
+    private final BookService revalidator;
+    private final ExecutorService refreshExecutor;
+    private final long freshMs;
+    private final long staleWhileRevalidateMs;
+    private final long staleIfErrorMs;
+    private final Cache<Object, Stored<?>> store;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    // Bumped by every write before it clears the store, so a load that overlapped a write does not store what it read
+    private final AtomicLongArray idGenerations = new AtomicLongArray(ID_GENERATION_STRIPES);
+    private final AtomicLong listGeneration = new AtomicLong();
+
+    private final LongAdder servedOnError = new LongAdder();
+    private final LongAdder servedWhileRevalidating = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    public StaleOnErrorBookService(BookService delegate, ExecutorService refreshExecutor, long maxSize, long freshMs,
+                                   long staleWhileRevalidateMs, long staleIfErrorMs) {
+        this(delegate, delegate, refreshExecutor, maxSize, freshMs, staleWhileRevalidateMs, staleIfErrorMs);
+    }
+
+    public StaleOnErrorBookService(BookService delegate, BookService revalidator, ExecutorService refreshExecutor,
+                                   long maxSize, long freshMs, long staleWhileRevalidateMs, long staleIfErrorMs) {
+        this.delegate = delegate;
+        this.revalidator = revalidator;
+        this.refreshExecutor = refreshExecutor;
+        this.freshMs = freshMs;
+        this.staleWhileRevalidateMs = staleWhileRevalidateMs;
+        this.staleIfErrorMs = staleIfErrorMs;
+        this.store = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public long getServedOnErrorCount() {
+        return servedOnError.sum();
+    }
+
+    public long getServedWhileRevalidatingCount() {
+        return servedWhileRevalidating.sum();
+    }
+
+    public long getRefreshFailureCount() {
+        return refreshFailures.sum();
+    }
+
+    public long getStoreSize() {
+        return store.estimatedSize();
+    }
+
+    // Seeds the store from a snapshot, each book as old as its fetch time. Until they are maxAgeMs old, snapshot
+    // entries are served while revalidating however long staleWhileRevalidateMs is, so a restarted instance answers
+    // at once, marked stale, rather than waiting on the upstream.
+    public void warm(BookSnapshotFile.Snapshot snapshot, long maxAgeMs) {
+        long window = Math.max(maxAgeMs - freshMs, staleWhileRevalidateMs);
+        for (BookSnapshotFile.Entry entry : snapshot.getEntries()) {
+            store.put(entry.getBook().getId(), new Stored<>(entry.getBook(), entry.getFetchedAtMillis(), window));
+        }
+        if (snapshot.isComplete()) {
+            store.put(ALL_BOOKS_KEY, new Stored<>(new HashSet<>(snapshot.getBooks()), snapshot.getTakenAtMillis(),
+                    window));
+        }
+    }
+
+    @Override
+    public Set<BookDto> getAllBooks() {
+        return read(ALL_BOOKS_KEY, delegate::getAllBooks, revalidator::getAllBooks);
+    }
+
+    @Override
+    public void streamAllBooks(Consumer<BookDto> bookConsumer) {
+        delegate.streamAllBooks(bookConsumer);
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByTitle(String title) {
+        return read("title:" + title, () -> delegate.getAllBooksByTitle(title),
+                () -> revalidator.getAllBooksByTitle(title));
+    }
+
+    @Override
+    public Set<BookDto> getAllBooksByAuthor(String author) {
+        return read("author:" + author, () -> delegate.getAllBooksByAuthor(author),
+                () -> revalidator.getAllBooksByAuthor(author));
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        return read(id, () -> delegate.getBookById(id), () -> revalidator.getBookById(id));
+    }
+
+    @Override
+    public BookDto createNewBook(CreateOrUpdateBookDto createOrUpdateBookDto) {
+        BookDto created = delegate.createNewBook(createOrUpdateBookDto);
+        invalidate(created == null ? null : created.getId());
+        return created;
+    }
+
+    @Override
+    public BookDto deleteBookById(Long id) {
+        try {
+            return delegate.deleteBookById(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public BookDto updateBookWithId(Long id, CreateOrUpdateBookDto bookDto) {
+        try {
+            return delegate.updateBookWithId(id, bookDto);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T read(Object key, Supplier<T> loader, Supplier<T> revalidation) {
+        Stored<T> stored = (Stored<T>) store.getIfPresent(key);
+        if (stored == null) {
+            return load(key, loader);
+        }
+        long age = System.currentTimeMillis() - stored.storedAtMillis;
+        // Strictly younger, so a freshMs of zero revalidates every read even within the same millisecond
+        if (age < freshMs) {
+            return stored.value;
+        }
+        if (age <= freshMs + stored.staleWhileRevalidateMs && refreshInBackground(key, revalidation)) {
+            servedWhileRevalidating.increment();
+            Staleness.mark(age, false);
+            return stored.value;
+        }
+
+        try {
+            return load(key, revalidation);
+        } catch (BookNotFoundException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            if (age > freshMs + staleIfErrorMs) {
+                throw e;
+            }
+            servedOnError.increment();
+            Staleness.mark(age, true);
+            return stored.value;
+        }
+    }
+
+    private <T> T load(Object key, Supplier<T> loader) {
+        long generation = generationOf(key);
+        T value;
+        try {
+            value = loader.get();
+        } catch (BookNotFoundException e) {
+            store.invalidate(key);
+            throw e;
+        }
+        if (value != null) {
+            Stored<T> stored = new Stored<>(value, System.currentTimeMillis(), staleWhileRevalidateMs);
+            store.put(key, stored);
+            // A write since the load began may have cleared the key before the put; take back what was read
+            if (generationOf(key) != generation) {
+                store.asMap().remove(key, stored);
+            }
+        }
+        return value;
+    }
+
+    private long generationOf(Object key) {
+        return key instanceof String ? listGeneration.get() : idGenerations.get(stripe((Long) key));
+    }
+
+    private static int stripe(Long id) {
+        return (Long.hashCode(id) & Integer.MAX_VALUE) % ID_GENERATION_STRIPES;
+    }
+
+    // Returns false if the refresh could not be scheduled, in which case the caller reads synchronously instead
+    private boolean refreshInBackground(Object key, Supplier<?> loader) {
+        if (!refreshing.add(key)) {
+            return true;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, loader);
+                } catch (RuntimeException e) {
+                    refreshFailures.increment();
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            return false;
+        }
+    }
+
+    // A write to one book can change any list it appears in, so every stored list goes with it
+    private void invalidate(Long id) {
+        if (id != null) {
+            idGenerations.incrementAndGet(stripe(id));
+        }
+        listGeneration.incrementAndGet();
+        if (id != null) {
+            store.invalidate(id);
+        }
+        store.asMap().keySet().removeIf(key -> key instanceof String);
+    }
+
+    private static final class Stored<T> {
+
+        private final T value;
+        private final long storedAtMillis;
+        private final long staleWhileRevalidateMs;
+
+        Stored(T value, long storedAtMillis, long staleWhileRevalidateMs) {
+            this.value = value;
+            this.storedAtMillis = storedAtMillis;
+            this.staleWhileRevalidateMs = staleWhileRevalidateMs;
+        }
+    }
+}
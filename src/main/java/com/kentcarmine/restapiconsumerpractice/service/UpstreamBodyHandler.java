@@ -0,0 +1,14 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Receives an upstream response as it arrives: status, content type (null if the upstream sent none), length (-1 if
+// unknown) and the unread body, which is only valid for the duration of the call
+@FunctionalInterface
+public interface UpstreamBodyHandler {
+
+    void handle(int status, MediaType contentType, long contentLength, InputStream body) throws IOException;
+}
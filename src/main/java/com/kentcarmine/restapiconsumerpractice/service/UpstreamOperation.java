@@ -0,0 +1,22 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+// The calls this proxy makes to the backing books API, named as they appear in upstream metrics
+public enum UpstreamOperation {
+    FIND_ALL("findAll"),
+    FIND_BY_TITLE("findByTitle"),
+    FIND_BY_AUTHOR("findByAuthor"),
+    FIND_BY_ID("findById"),
+    CREATE("create"),
+    UPDATE("update"),
+    DELETE("delete");
+
+    private final String tagValue;
+
+    UpstreamOperation(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+}
@@ -0,0 +1,52 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+// How UpstreamBalancer picks among healthy instances. The load-aware strategies compare two instances picked at random
+// (power of two choices) rather than scanning for the best, so concurrent callers don't all pile onto the same one.
+public enum BalancingStrategy {
+
+    ROUND_ROBIN {
+        @Override
+        UpstreamInstance choose(List<UpstreamInstance> candidates, AtomicInteger counter) {
+            return candidates.get(Math.floorMod(counter.getAndIncrement(), candidates.size()));
+        }
+    },
+
+    LEAST_OUTSTANDING {
+        @Override
+        UpstreamInstance choose(List<UpstreamInstance> candidates, AtomicInteger counter) {
+            return powerOfTwoChoices(candidates, UpstreamInstance::getOutstanding);
+        }
+    },
+
+    // Latency average weighted by requests in flight, so a fast instance still sheds load once it queues up
+    EWMA {
+        @Override
+        UpstreamInstance choose(List<UpstreamInstance> candidates, AtomicInteger counter) {
+            return powerOfTwoChoices(candidates,
+                    instance -> (instance.getLatencyEwmaNanos() + 1) * (instance.getOutstanding() + 1));
+        }
+    };
+
+    abstract UpstreamInstance choose(List<UpstreamInstance> candidates, AtomicInteger counter);
+
+    private static UpstreamInstance powerOfTwoChoices(List<UpstreamInstance> candidates,
+                                                      ToDoubleFunction<UpstreamInstance> cost) {
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        UpstreamInstance a = candidates.get(first);
+        UpstreamInstance b = candidates.get(second);
+        return cost.applyAsDouble(b) < cost.applyAsDouble(a) ? b : a;
+    }
+}
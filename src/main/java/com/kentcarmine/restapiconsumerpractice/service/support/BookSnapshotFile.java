@@ -0,0 +1,195 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Books on local disk in a compact binary form: a header (magic, version, time taken, whether it holds every book,
+// count), one record per book
+// (id, when it was fetched from the upstream, and length-prefixed UTF-8 title and author) and a CRC32 of everything
+// before it. Version 1 files, which have no fetch times, are still read, with every book fetched when the file was
+// taken. A snapshot is written to a
+// temporary file, synced and renamed over the old one, so a crash leaves either the old or the new snapshot; a torn
+// or corrupted file fails its checksum and is rejected as a whole.
+public class BookSnapshotFile {
+
+    private static final int MAGIC = 0x424b534e;
+    private static final byte VERSION = 2;
+    private static final int CHECKSUM_BYTES = Long.BYTES;
+
+    private final Path path;
+
+    public BookSnapshotFile(Path path) {
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // Every book as fetched at takenAtMillis
+    public void write(Collection<BookDto> books, long takenAtMillis, boolean complete) throws IOException {
+        List<Entry> entries = new ArrayList<>(books.size());
+        for (BookDto book : books) {
+            entries.add(new Entry(book, takenAtMillis));
+        }
+        write(entries, takenAtMillis, complete);
+    }
+
+    public void write(List<Entry> entries, long takenAtMillis, boolean complete) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(takenAtMillis);
+            out.writeBoolean(complete);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                BookDto book = entry.getBook();
+                out.writeLong(book.getId());
+                out.writeLong(entry.getFetchedAtMillis());
+                writeString(out, book.getTitle());
+                writeString(out, book.getAuthor());
+            }
+            out.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            file.getFD().sync();
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Returns null if there is no snapshot; throws if there is one but it is unreadable or fails its checksum
+    public Snapshot read() throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (bytes.length < CHECKSUM_BYTES) {
+            throw new IOException("Snapshot " + path + " is truncated");
+        }
+
+        int length = bytes.length - CHECKSUM_BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        if (ByteBuffer.wrap(bytes, length, CHECKSUM_BYTES).getLong() != crc.getValue()) {
+            throw new IOException("Snapshot " + path + " failed its checksum");
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, length))) {
+            byte version = in.readInt() == MAGIC ? in.readByte() : -1;
+            if (version != 1 && version != VERSION) {
+                throw new IOException("Snapshot " + path + " is not a version 1 or " + VERSION + " book snapshot");
+            }
+            long takenAtMillis = in.readLong();
+            boolean complete = in.readBoolean();
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                long fetchedAtMillis = version == 1 ? takenAtMillis : in.readLong();
+                entries.add(new Entry(new BookDto(id, readString(in), readString(in)), fetchedAtMillis));
+            }
+            return new Snapshot(entries, takenAtMillis, complete);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static final class Snapshot {
+
+        private final List<Entry> entries;
+        private final long takenAtMillis;
+        private final boolean complete;
+
+        public Snapshot(List<Entry> entries, long takenAtMillis, boolean complete) {
+            this.entries = entries;
+            this.takenAtMillis = takenAtMillis;
+            this.complete = complete;
+        }
+
+        public List<Entry> getEntries() {
+            return entries;
+        }
+
+        public List<BookDto> getBooks() {
+            List<BookDto> books = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                books.add(entry.getBook());
+            }
+            return books;
+        }
+
+        public long getTakenAtMillis() {
+            return takenAtMillis;
+        }
+
+        // True if the snapshot holds every book rather than just the ones some read happened to return
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+
+    public static final class Entry {
+
+        private final BookDto book;
+        private final long fetchedAtMillis;
+
+        public Entry(BookDto book, long fetchedAtMillis) {
+            this.book = book;
+            this.fetchedAtMillis = fetchedAtMillis;
+        }
+
+        public BookDto getBook() {
+            return book;
+        }
+
+        // When the upstream last returned this book
+        public long getFetchedAtMillis() {
+            return fetchedAtMillis;
+        }
+    }
+}
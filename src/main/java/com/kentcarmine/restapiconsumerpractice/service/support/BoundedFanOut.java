@@ -0,0 +1,79 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+// Runs tasks on a shared executor with at most maxConcurrency in flight, collecting results in task order.
+// Tasks not finished (or not started) by the deadline are cancelled and reported through onTimeout.
+public class BoundedFanOut {
+
+    private final ExecutorService executor;
+    private final int maxConcurrency;
+    private final long timeoutMs;
+
+    public BoundedFanOut(ExecutorService executor, int maxConcurrency, long timeoutMs) {
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public <T> List<T> run(List<Callable<T>> tasks, IntFunction<T> onTimeout,
+                           BiFunction<Integer, Throwable, T> onFailure) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+
+        for (Callable<T> task : tasks) {
+            if (!acquireBefore(permits, deadline)) {
+                break;
+            }
+            futures.add(executor.submit(() -> {
+                try {
+                    return task.call();
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        List<T> results = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            results.add(i < futures.size() ? await(i, futures.get(i), deadline, onTimeout, onFailure) : onTimeout.apply(i));
+        }
+        return results;
+    }
+
+    private static <T> T await(int index, Future<T> future, long deadline, IntFunction<T> onTimeout,
+                               BiFunction<Integer, Throwable, T> onFailure) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return onTimeout.apply(index);
+        } catch (ExecutionException e) {
+            return onFailure.apply(index, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return onTimeout.apply(index);
+        }
+    }
+
+    private static boolean acquireBefore(Semaphore permits, long deadline) {
+        try {
+            return permits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
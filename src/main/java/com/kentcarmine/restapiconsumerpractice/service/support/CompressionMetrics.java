@@ -0,0 +1,70 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Records restapipractice.compression.* for proxy responses (side=response) and upstream responses (side=upstream):
+// bytes before and after compression and the CPU time spent compressing or decompressing, so the bytes saved can be
+// weighed against the CPU it costs.
+@Component
+public class CompressionMetrics {
+
+    public static final String RESPONSE = "response";
+    public static final String UPSTREAM = "upstream";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean THREAD_CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private final Counter responseUncompressed;
+    private final Counter responseCompressed;
+    private final Counter responseCpu;
+    private final Counter upstreamUncompressed;
+    private final Counter upstreamCompressed;
+    private final Counter upstreamCpu;
+
+    public CompressionMetrics(MeterRegistry meterRegistry) {
+        responseUncompressed = bytes(meterRegistry, "uncompressed_bytes", RESPONSE);
+        responseCompressed = bytes(meterRegistry, "compressed_bytes", RESPONSE);
+        responseCpu = cpu(meterRegistry, RESPONSE);
+        upstreamUncompressed = bytes(meterRegistry, "uncompressed_bytes", UPSTREAM);
+        upstreamCompressed = bytes(meterRegistry, "compressed_bytes", UPSTREAM);
+        upstreamCpu = cpu(meterRegistry, UPSTREAM);
+    }
+
+    // CPU time of the current thread, or wall time where the JVM can't measure it
+    public static long cpuNanos() {
+        return THREAD_CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    public void recordResponse(long uncompressedBytes, long compressedBytes, long cpuNanos) {
+        responseUncompressed.increment(uncompressedBytes);
+        responseCompressed.increment(compressedBytes);
+        responseCpu.increment(cpuNanos / 1e9);
+    }
+
+    public void recordUpstream(long uncompressedBytes, long compressedBytes, long cpuNanos) {
+        upstreamUncompressed.increment(uncompressedBytes);
+        upstreamCompressed.increment(compressedBytes);
+        upstreamCpu.increment(cpuNanos / 1e9);
+    }
+
+    private static Counter bytes(MeterRegistry meterRegistry, String name, String side) {
+        return Counter.builder("restapipractice.compression." + name)
+                .description("Bytes of compressed response bodies, before or after compression")
+                .baseUnit("bytes")
+                .tag("side", side)
+                .register(meterRegistry);
+    }
+
+    private static Counter cpu(MeterRegistry meterRegistry, String side) {
+        return Counter.builder("restapipractice.compression.cpu")
+                .description("CPU time spent compressing or decompressing response bodies")
+                .baseUnit("seconds")
+                .tag("side", side)
+                .register(meterRegistry);
+    }
+}
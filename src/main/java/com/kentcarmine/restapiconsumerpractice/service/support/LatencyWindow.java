@@ -0,0 +1,45 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Keeps the most recent latency samples in a ring buffer and tracks one percentile over them. The percentile is
+// recomputed every `recomputeEvery` samples rather than on each read, so reading it is just a volatile load.
+public class LatencyWindow {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final double percentile;
+    private final int recomputeEvery;
+    private volatile long percentileNanos = -1;
+
+    public LatencyWindow(int size, double percentile, int recomputeEvery) {
+        this.samples = new AtomicLongArray(size);
+        this.percentile = percentile;
+        this.recomputeEvery = recomputeEvery;
+    }
+
+    public void record(long nanos) {
+        long count = recorded.getAndIncrement();
+        samples.set((int) (count % samples.length()), nanos);
+        if ((count + 1) % recomputeEvery == 0) {
+            percentileNanos = compute(Math.min(count + 1, samples.length()));
+        }
+    }
+
+    // -1 until the first recomputation
+    public long getPercentileNanos() {
+        return percentileNanos;
+    }
+
+    private long compute(long filled) {
+        long[] sorted = new long[(int) filled];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,41 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket that caps retries at a fraction of traffic: every request deposits `ratio` tokens (up to maxTokens)
+// and every retry spends one. When the upstream is failing across the board the balance runs dry and retries stop,
+// instead of multiplying the load on an upstream that is already struggling.
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositMilliTokens;
+    private final long maxMilliTokens;
+    private final AtomicLong balance;
+
+    public RetryBudget(double ratio, int maxTokens) {
+        this.depositMilliTokens = Math.round(ratio * SCALE);
+        this.maxMilliTokens = maxTokens * SCALE;
+        this.balance = new AtomicLong(maxMilliTokens);
+    }
+
+    public void recordRequest() {
+        balance.getAndUpdate(current -> Math.min(maxMilliTokens, current + depositMilliTokens));
+    }
+
+    public boolean tryAcquireRetry() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    public double getBalance() {
+        return balance.get() / (double) SCALE;
+    }
+}
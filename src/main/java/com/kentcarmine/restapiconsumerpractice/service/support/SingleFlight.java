@@ -0,0 +1,89 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import com.kentcarmine.restapiconsumerpractice.exception.UnknownException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Deduplicates concurrent calls for the same key: the first caller runs the loader, later callers wait for its result
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Call<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final long timeoutMs;
+
+    public SingleFlight(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        Call<V> call = new Call<>();
+        Call<V> existing = inFlight.putIfAbsent(key, call);
+
+        if (existing == null) {
+            try {
+                V value = loader.get();
+                call.future.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                call.future.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, call);
+            }
+        }
+
+        coalescedCount.incrementAndGet();
+        existing.waiters.incrementAndGet();
+        try {
+            return existing.future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new UnknownException(e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            throw new UnknownException("Timed out waiting for in-flight request " + key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnknownException("Interrupted waiting for in-flight request " + key);
+        } finally {
+            existing.waiters.decrementAndGet();
+        }
+    }
+
+    public int getWaiterCount(K key) {
+        Call<V> call = inFlight.get(key);
+        return call == null ? 0 : call.waiters.get();
+    }
+
+    public int getWaiterCount() {
+        int waiters = 0;
+        for (Call<V> call : inFlight.values()) {
+            waiters += call.waiters.get();
+        }
+        return waiters;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private static class Call<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+}
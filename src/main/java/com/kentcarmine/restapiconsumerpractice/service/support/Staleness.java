@@ -0,0 +1,51 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// Marks the current request as answered from the last-known-good store, so the controller can tell the client how
+// stale the body is. Outside a request (background refreshes, tests) marking does nothing.
+public final class Staleness {
+
+    private static final String ATTRIBUTE = Staleness.class.getName();
+
+    private final long ageMillis;
+    private final boolean revalidationFailed;
+
+    private Staleness(long ageMillis, boolean revalidationFailed) {
+        this.ageMillis = ageMillis;
+        this.revalidationFailed = revalidationFailed;
+    }
+
+    public static void mark(long ageMillis, boolean revalidationFailed) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(ATTRIBUTE, new Staleness(ageMillis, revalidationFailed),
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    // The mark for the current request, or null if its response is fresh
+    public static Staleness current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes == null ? null
+                : (Staleness) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    public long getAgeMillis() {
+        return ageMillis;
+    }
+
+    // True if the upstream failed and the stale body is a fallback, false if it is being refreshed in the background
+    public boolean isRevalidationFailed() {
+        return revalidationFailed;
+    }
+
+    @Override
+    public String toString() {
+        return "Staleness{" +
+                "ageMillis=" + ageMillis +
+                ", revalidationFailed=" + revalidationFailed +
+                '}';
+    }
+}
@@ -0,0 +1,174 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+// Spreads upstream requests across several replicas. Requests addressed to the logical root URL (the configured
+// restapipractice.root_url) are sent to an instance picked by the BalancingStrategy instead; I/O errors and 5xx
+// responses count against that instance's health. Latency is measured to the response headers.
+public class UpstreamBalancer implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "restapipractice.upstream.instance.";
+
+    private final URI logicalRoot;
+    private final String logicalRootPath;
+    private final List<UpstreamInstance> instances;
+    private final BalancingStrategy strategy;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public UpstreamBalancer(String logicalRootUrl, List<String> instanceUrls, BalancingStrategy strategy,
+                            int failureThreshold, long ejectionMs) {
+        if (instanceUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one upstream instance URL is required");
+        }
+        this.logicalRoot = URI.create(logicalRootUrl);
+        String rootPath = logicalRoot.getRawPath() == null ? "" : logicalRoot.getRawPath();
+        this.logicalRootPath = rootPath.endsWith("/") ? rootPath.substring(0, rootPath.length() - 1) : rootPath;
+        List<UpstreamInstance> instances = new ArrayList<>(instanceUrls.size());
+        for (String instanceUrl : instanceUrls) {
+            instances.add(new UpstreamInstance(instanceUrl.trim(), failureThreshold, ejectionMs));
+        }
+        this.instances = Collections.unmodifiableList(instances);
+        this.strategy = strategy;
+    }
+
+    public List<UpstreamInstance> getInstances() {
+        return instances;
+    }
+
+    // When every instance is ejected all of them are tried again, rather than failing every request outright
+    public UpstreamInstance choose() {
+        List<UpstreamInstance> healthy = new ArrayList<>(instances.size());
+        for (UpstreamInstance instance : instances) {
+            if (instance.isHealthy()) {
+                healthy.add(instance);
+            }
+        }
+        return strategy.choose(healthy.isEmpty() ? instances : healthy, counter);
+    }
+
+    public boolean handles(URI uri) {
+        return logicalRoot.getScheme().equalsIgnoreCase(uri.getScheme())
+                && logicalRoot.getHost().equalsIgnoreCase(uri.getHost())
+                && logicalRoot.getPort() == uri.getPort()
+                && uri.getRawPath() != null && uri.getRawPath().startsWith(logicalRootPath);
+    }
+
+    public URI resolve(UpstreamInstance instance, URI uri) {
+        String pathAndQuery = uri.getRawPath().substring(logicalRootPath.length());
+        if (uri.getRawQuery() != null) {
+            pathAndQuery += "?" + uri.getRawQuery();
+        }
+        return instance.resolve(pathAndQuery);
+    }
+
+    public ClientHttpRequestInterceptor requestInterceptor() {
+        return (request, body, execution) -> {
+            if (!handles(request.getURI())) {
+                return execution.execute(request, body);
+            }
+            UpstreamInstance instance = choose();
+            URI target = resolve(instance, request.getURI());
+            HttpRequest balanced = new HttpRequestWrapper(request) {
+                @Override
+                public URI getURI() {
+                    return target;
+                }
+            };
+
+            instance.onStart();
+            long start = System.nanoTime();
+            try {
+                ClientHttpResponse response = execution.execute(balanced, body);
+                instance.onFinish(System.nanoTime() - start, response.getRawStatusCode() < 500);
+                return response;
+            } catch (IOException | RuntimeException e) {
+                instance.onFinish(System.nanoTime() - start, false);
+                throw e;
+            }
+        };
+    }
+
+    public ExchangeFilterFunction exchangeFilter() {
+        return (request, next) -> {
+            if (!handles(request.url())) {
+                return next.exchange(request);
+            }
+            return Mono.defer(() -> {
+                UpstreamInstance instance = choose();
+                ClientRequest balanced = ClientRequest.from(request).url(resolve(instance, request.url())).build();
+                AtomicBoolean finished = new AtomicBoolean();
+                instance.onStart();
+                long start = System.nanoTime();
+                return next.exchange(balanced)
+                        .doOnSuccess(response -> {
+                            if (finished.compareAndSet(false, true)) {
+                                instance.onFinish(System.nanoTime() - start, response.rawStatusCode() < 500);
+                            }
+                        })
+                        .doOnError(e -> {
+                            if (finished.compareAndSet(false, true)) {
+                                instance.onFinish(System.nanoTime() - start, false);
+                            }
+                        })
+                        .doOnCancel(() -> {
+                            if (finished.compareAndSet(false, true)) {
+                                instance.onCancel();
+                            }
+                        });
+            });
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (UpstreamInstance instance : instances) {
+            counter(registry, instance, "requests", "Requests sent to this upstream instance",
+                    UpstreamInstance::getRequestCount);
+            counter(registry, instance, "failures", "Requests to this upstream instance that failed or got a 5xx",
+                    UpstreamInstance::getFailureCount);
+            counter(registry, instance, "ejections", "Times this upstream instance was taken out of rotation",
+                    UpstreamInstance::getEjectionCount);
+            gauge(registry, instance, "outstanding", "Requests currently in flight to this upstream instance",
+                    UpstreamInstance::getOutstanding);
+            gauge(registry, instance, "latency_ewma_ms", "Moving average of this upstream instance's latency",
+                    i -> i.getLatencyEwmaNanos() / 1_000_000.0);
+            gauge(registry, instance, "healthy", "1 while this upstream instance is in rotation, otherwise 0",
+                    i -> i.isHealthy() ? 1 : 0);
+        }
+    }
+
+    private static void counter(MeterRegistry registry, UpstreamInstance instance, String name, String description,
+                                ToDoubleFunction<UpstreamInstance> count) {
+        FunctionCounter.builder(METRIC_PREFIX + name, instance, count)
+                .description(description)
+                .tag("instance", instance.getName())
+                .register(registry);
+    }
+
+    private static void gauge(MeterRegistry registry, UpstreamInstance instance, String name, String description,
+                              ToDoubleFunction<UpstreamInstance> value) {
+        Gauge.builder(METRIC_PREFIX + name, instance, value)
+                .description(description)
+                .tag("instance", instance.getName())
+                .register(registry);
+    }
+}
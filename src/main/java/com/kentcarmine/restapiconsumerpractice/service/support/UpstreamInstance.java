@@ -0,0 +1,97 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// One upstream replica as seen by UpstreamBalancer: requests in flight, a moving average of response latency, and
+// passive health. failureThreshold consecutive failures eject the instance for ejectionMs; the next failure after it
+// is readmitted ejects it again straight away, a success resets the count.
+public class UpstreamInstance {
+
+    // Weight of the newest sample in the latency average
+    private static final double EWMA_WEIGHT = 0.3;
+
+    private final String rootUrl;
+    private final String name;
+    private final int failureThreshold;
+    private final long ejectionMs;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong latencyEwmaBits = new AtomicLong(Double.doubleToLongBits(0));
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder ejections = new LongAdder();
+    private volatile long ejectedUntilMillis;
+
+    public UpstreamInstance(String rootUrl, int failureThreshold, long ejectionMs) {
+        URI root = URI.create(rootUrl);
+        this.rootUrl = rootUrl.endsWith("/") ? rootUrl.substring(0, rootUrl.length() - 1) : rootUrl;
+        this.name = root.getAuthority();
+        this.failureThreshold = failureThreshold;
+        this.ejectionMs = ejectionMs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Appends a path and query, already encoded, to this instance's root URL
+    public URI resolve(String rawPathAndQuery) {
+        return URI.create(rootUrl + rawPathAndQuery);
+    }
+
+    public boolean isHealthy() {
+        return System.currentTimeMillis() >= ejectedUntilMillis;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public double getLatencyEwmaNanos() {
+        return Double.longBitsToDouble(latencyEwmaBits.get());
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public long getEjectionCount() {
+        return ejections.sum();
+    }
+
+    void onStart() {
+        outstanding.incrementAndGet();
+    }
+
+    void onFinish(long elapsedNanos, boolean success) {
+        outstanding.decrementAndGet();
+        requests.increment();
+        if (success) {
+            consecutiveFailures.set(0);
+            latencyEwmaBits.getAndUpdate(bits -> {
+                double current = Double.longBitsToDouble(bits);
+                double next = current == 0 ? elapsedNanos : current + EWMA_WEIGHT * (elapsedNanos - current);
+                return Double.doubleToLongBits(next);
+            });
+        } else {
+            failures.increment();
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold && isHealthy()) {
+                ejectedUntilMillis = System.currentTimeMillis() + ejectionMs;
+                ejections.increment();
+            }
+        }
+    }
+
+    // Requests cancelled by the caller say nothing about the instance
+    void onCancel() {
+        outstanding.decrementAndGet();
+    }
+}
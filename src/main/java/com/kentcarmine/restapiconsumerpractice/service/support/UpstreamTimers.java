@@ -0,0 +1,109 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import com.kentcarmine.restapiconsumerpractice.service.UpstreamOperation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+// Records restapipractice.upstream.requests, one timer per upstream operation and response status. Calls that got
+// no response are tagged IO_ERROR, anything else that failed UNKNOWN. Timers are cached to keep meter lookups off
+// the request path.
+@Component
+public class UpstreamTimers {
+
+    public static final String METRIC_NAME = "restapipractice.upstream.requests";
+
+    // WebClient request attribute holding the UpstreamOperation that exchangeFilter() times
+    public static final String OPERATION_ATTRIBUTE = UpstreamOperation.class.getName();
+
+    private static final String IO_ERROR = "IO_ERROR";
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public UpstreamTimers(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> ResponseEntity<T> exchange(UpstreamOperation operation, Supplier<ResponseEntity<T>> call) {
+        return record(operation, call, ResponseEntity::getStatusCodeValue);
+    }
+
+    public <T> T record(UpstreamOperation operation, Supplier<T> call, ToIntFunction<T> statusOf) {
+        long start = System.nanoTime();
+        String status = UNKNOWN;
+        try {
+            T result = call.get();
+            status = String.valueOf(statusOf.applyAsInt(result));
+            return result;
+        } catch (RuntimeException e) {
+            status = statusOf(e);
+            throw e;
+        } finally {
+            record(operation, status, start);
+        }
+    }
+
+    // For calls timed by hand, where the caller decides when the upstream's part of the call is over
+    public void record(UpstreamOperation operation, int status, long startNanos) {
+        record(operation, String.valueOf(status), startNanos);
+    }
+
+    public void recordFailure(UpstreamOperation operation, Throwable e, long startNanos) {
+        record(operation, statusOf(e), startNanos);
+    }
+
+    // Times WebClient exchanges tagged with OPERATION_ATTRIBUTE, from sending the request to the response headers
+    public ExchangeFilterFunction exchangeFilter() {
+        return (request, next) -> {
+            Object attribute = request.attribute(OPERATION_ATTRIBUTE).orElse(null);
+            if (!(attribute instanceof UpstreamOperation)) {
+                return next.exchange(request);
+            }
+            UpstreamOperation operation = (UpstreamOperation) attribute;
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                return next.exchange(request)
+                        .doOnSuccess(response -> record(operation, String.valueOf(response.rawStatusCode()), start))
+                        .doOnError(e -> record(operation, statusOf(e), start));
+            });
+        };
+    }
+
+    public Timer timer(UpstreamOperation operation, String status) {
+        return timers.computeIfAbsent(operation.getTagValue() + ':' + status, key -> Timer.builder(METRIC_NAME)
+                .description("Calls from this proxy to the backing books API")
+                .tag("operation", operation.getTagValue())
+                .tag("status", status)
+                .register(meterRegistry));
+    }
+
+    private void record(UpstreamOperation operation, String status, long startNanos) {
+        timer(operation, status).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String statusOf(Throwable e) {
+        if (e instanceof RestClientResponseException) {
+            return String.valueOf(((RestClientResponseException) e).getRawStatusCode());
+        } else if (e instanceof WebClientResponseException) {
+            return String.valueOf(((WebClientResponseException) e).getRawStatusCode());
+        } else if (e instanceof ResourceAccessException || e instanceof WebClientRequestException) {
+            return IO_ERROR;
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,68 @@
+package com.kentcarmine.restapiconsumerpractice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compares a JMH JSON result file with the committed baseline and exits non-zero if any benchmark present in both
+// got slower by more than the tolerance (0.25 = 25%). All benchmarks here report average time, so lower is better.
+public class BaselineCheck {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("usage: BaselineCheck <baseline.json> <result.json> <tolerance>");
+            System.exit(2);
+        }
+
+        File baselineFile = new File(args[0]);
+        if (!baselineFile.exists()) {
+            System.out.println("no baseline at " + baselineFile + "; copy " + args[1] + " there to create one");
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Double> baseline = scores(objectMapper.readTree(baselineFile));
+        Map<String, Double> current = scores(objectMapper.readTree(new File(args[1])));
+        double tolerance = Double.parseDouble(args[2]);
+
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : current.entrySet()) {
+            Double expected = baseline.get(entry.getKey());
+            if (expected == null) {
+                System.out.println("no baseline for " + entry.getKey());
+                continue;
+            }
+            double change = (entry.getValue() - expected) / expected;
+            String line = String.format("%-90s %12.3f -> %12.3f (%+.1f%%)", entry.getKey(), expected,
+                    entry.getValue(), change * 100);
+            System.out.println(line);
+            if (change > tolerance) {
+                regressions.add(line);
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.err.println(regressions.size() + " benchmark(s) regressed by more than "
+                    + Math.round(tolerance * 100) + "%:");
+            regressions.forEach(System.err::println);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Double> scores(JsonNode results) {
+        Map<String, Double> scores = new HashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            result.path("params").fields().forEachRemaining(param ->
+                    key.append(':').append(param.getKey()).append('=').append(param.getValue().asText()));
+            scores.put(key.toString(), result.path("primaryMetric").path("score").asDouble());
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,77 @@
+package com.kentcarmine.restapiconsumerpractice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// JSON (de)serialization of the DTOs, using an ObjectMapper configured the way Spring Boot configures its own
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class BookJsonBenchmark {
+
+    private static final TypeReference<Set<BookDto>> BOOK_SET_TYPE = new TypeReference<Set<BookDto>>() {};
+
+    private ObjectMapper objectMapper;
+    private BookDto book;
+    private CreateOrUpdateBookDto createOrUpdateBook;
+    private Set<BookDto> books;
+    private String bookJson;
+    private String createOrUpdateBookJson;
+    private String booksJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        book = new BookDto(42L, "The Left Hand of Darkness", "Ursula K. Le Guin");
+        createOrUpdateBook = new CreateOrUpdateBookDto("The Left Hand of Darkness", "Ursula K. Le Guin");
+        books = new HashSet<>();
+        for (long id = 1; id <= 100; id++) {
+            books.add(new BookDto(id, "Title " + id, "Author " + id));
+        }
+        bookJson = objectMapper.writeValueAsString(book);
+        createOrUpdateBookJson = objectMapper.writeValueAsString(createOrUpdateBook);
+        booksJson = objectMapper.writeValueAsString(books);
+    }
+
+    @Benchmark
+    public String writeBook() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(book);
+    }
+
+    @Benchmark
+    public BookDto readBook() throws JsonProcessingException {
+        return objectMapper.readValue(bookJson, BookDto.class);
+    }
+
+    @Benchmark
+    public String writeCreateOrUpdateBook() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(createOrUpdateBook);
+    }
+
+    @Benchmark
+    public CreateOrUpdateBookDto readCreateOrUpdateBook() throws JsonProcessingException {
+        return objectMapper.readValue(createOrUpdateBookJson, CreateOrUpdateBookDto.class);
+    }
+
+    @Benchmark
+    public String writeBookSet100() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(books);
+    }
+
+    @Benchmark
+    public Set<BookDto> readBookSet100() throws JsonProcessingException {
+        return objectMapper.readValue(booksJson, BOOK_SET_TYPE);
+    }
+}
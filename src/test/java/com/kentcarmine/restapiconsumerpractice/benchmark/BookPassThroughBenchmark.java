@@ -0,0 +1,91 @@
+package com.kentcarmine.restapiconsumerpractice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kentcarmine.restapiconsumerpractice.config.HttpClientConfig;
+import com.kentcarmine.restapiconsumerpractice.loadtest.StubUpstreamServer;
+import com.kentcarmine.restapiconsumerpractice.service.BookServiceImpl;
+import com.kentcarmine.restapiconsumerpractice.service.PassThroughBookServiceImpl;
+import com.kentcarmine.restapiconsumerpractice.service.UpstreamBodyHandler;
+import com.kentcarmine.restapiconsumerpractice.service.support.CompressionMetrics;
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamTimers;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// A read served by parsing the upstream JSON into DTOs and serializing them again (what BookController does) against
+// the same read copied through as bytes (PassThroughBookController), with the response body discarded. Run with
+// -Djmh.args="BookPassThroughBenchmark -prof gc" to see the allocation per read as well (gc.alloc.rate.norm).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class BookPassThroughBenchmark {
+
+    private static final UpstreamBodyHandler DISCARD = (status, contentType, contentLength, body) ->
+            body.transferTo(OutputStream.nullOutputStream());
+
+    private StubUpstreamServer upstream;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private BookServiceImpl bookService;
+    private PassThroughBookServiceImpl passThroughBookService;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        upstream = new StubUpstreamServer(1000);
+
+        HttpClientConfig httpClientConfig = new HttpClientConfig();
+        connectionManager = httpClientConfig.upstreamConnectionManager(200, 50);
+        httpClient = httpClientConfig.upstreamHttpClient(connectionManager,
+                new CompressionMetrics(new SimpleMeterRegistry()), 30000, 60000, 2000, 5000, 1000, false, 0, 0, true);
+        RestTemplate restTemplate = new RestTemplate(httpClientConfig.upstreamRequestFactory(httpClient));
+        UpstreamTimers upstreamTimers = new UpstreamTimers(new SimpleMeterRegistry());
+
+        String baseUrl = upstream.getBaseUrl();
+        bookService = new BookServiceImpl(restTemplate, upstreamTimers, baseUrl, baseUrl + "/", baseUrl + "/title/",
+                baseUrl + "/author/", baseUrl + "/", baseUrl + "/new", baseUrl + "/", baseUrl + "/");
+        passThroughBookService = new PassThroughBookServiceImpl(restTemplate, upstreamTimers,
+                CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), false, baseUrl + "/",
+                baseUrl + "/title/", baseUrl + "/author/", baseUrl + "/");
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        httpClient.close();
+        connectionManager.close();
+        upstream.close();
+    }
+
+    @Benchmark
+    public void materializedGetBookById() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), bookService.getBookById(7L));
+    }
+
+    @Benchmark
+    public void passThroughGetBookById() throws IOException {
+        passThroughBookService.getBookById(7L, DISCARD);
+    }
+
+    @Benchmark
+    public void materializedGetAllBooks1000() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), bookService.getAllBooks());
+    }
+
+    @Benchmark
+    public void passThroughGetAllBooks1000() throws IOException {
+        passThroughBookService.getAllBooks(DISCARD);
+    }
+}
@@ -0,0 +1,90 @@
+package com.kentcarmine.restapiconsumerpractice.benchmark;
+
+import com.kentcarmine.restapiconsumerpractice.config.HttpClientConfig;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.loadtest.StubUpstreamServer;
+import com.kentcarmine.restapiconsumerpractice.service.BookServiceImpl;
+import com.kentcarmine.restapiconsumerpractice.service.support.CompressionMetrics;
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamTimers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// BookServiceImpl against an in-process stub upstream, over the same pooled client the application uses.
+// rawGetById is the bare RestTemplate call, so the difference to getBookById is the service's own overhead.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class BookServiceBenchmark {
+
+    private StubUpstreamServer upstream;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private BookServiceImpl bookService;
+    private CreateOrUpdateBookDto update;
+
+    @Setup
+    public void setUp() throws IOException {
+        upstream = new StubUpstreamServer(1000);
+
+        HttpClientConfig httpClientConfig = new HttpClientConfig();
+        connectionManager = httpClientConfig.upstreamConnectionManager(200, 50);
+        httpClient = httpClientConfig.upstreamHttpClient(connectionManager,
+                new CompressionMetrics(new SimpleMeterRegistry()), 30000, 60000, 2000, 5000, 1000, false, 0, 0, true);
+        restTemplate = new RestTemplate(httpClientConfig.upstreamRequestFactory(httpClient));
+
+        String baseUrl = upstream.getBaseUrl();
+        bookService = new BookServiceImpl(restTemplate, new UpstreamTimers(new SimpleMeterRegistry()), baseUrl,
+                baseUrl + "/", baseUrl + "/title/", baseUrl + "/author/", baseUrl + "/", baseUrl + "/new", baseUrl + "/",
+                baseUrl + "/");
+        update = new CreateOrUpdateBookDto("Title 7", "Author 7");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        httpClient.close();
+        connectionManager.close();
+        upstream.close();
+    }
+
+    @Benchmark
+    public BookDto rawGetById() {
+        return restTemplate.getForObject(upstream.getBaseUrl() + "/7", BookDto.class);
+    }
+
+    @Benchmark
+    public BookDto getBookById() {
+        return bookService.getBookById(7L);
+    }
+
+    @Benchmark
+    public Object getBookByIdNotFound() {
+        try {
+            return bookService.getBookById(Long.MAX_VALUE);
+        } catch (BookNotFoundException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Set<BookDto> getAllBooksByAuthor() {
+        return bookService.getAllBooksByAuthor("Author 7");
+    }
+
+    @Benchmark
+    public BookDto updateBookWithId() {
+        return bookService.updateBookWithId(7L, update);
+    }
+}
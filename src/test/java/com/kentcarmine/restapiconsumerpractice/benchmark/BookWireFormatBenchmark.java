@@ -0,0 +1,96 @@
+package com.kentcarmine.restapiconsumerpractice.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Encode/decode time of the DTOs in each wire format BookController negotiates, using ObjectMappers built the way
+// Spring MVC builds them for its converters. Payload sizes are printed once per fork during setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class BookWireFormatBenchmark {
+
+    private static final TypeReference<Set<BookDto>> BOOK_SET_TYPE = new TypeReference<Set<BookDto>>() {};
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private BookDto book;
+    private CreateOrUpdateBookDto createOrUpdateBook;
+    private Set<BookDto> books;
+    private byte[] bookBytes;
+    private byte[] createOrUpdateBookBytes;
+    private byte[] booksBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = objectMapper(format);
+        book = new BookDto(42L, "The Left Hand of Darkness", "Ursula K. Le Guin");
+        createOrUpdateBook = new CreateOrUpdateBookDto("The Left Hand of Darkness", "Ursula K. Le Guin");
+        books = new HashSet<>();
+        for (long id = 1; id <= 100; id++) {
+            books.add(new BookDto(id, "Title " + id, "Author " + id));
+        }
+        bookBytes = objectMapper.writeValueAsBytes(book);
+        createOrUpdateBookBytes = objectMapper.writeValueAsBytes(createOrUpdateBook);
+        booksBytes = objectMapper.writeValueAsBytes(books);
+        System.out.printf("%n%s payload bytes: book=%d createOrUpdateBook=%d bookSet100=%d%n", format,
+                bookBytes.length, createOrUpdateBookBytes.length, booksBytes.length);
+    }
+
+    private static ObjectMapper objectMapper(String format) {
+        switch (format) {
+            case "json":
+                return Jackson2ObjectMapperBuilder.json().build();
+            case "smile":
+                return Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor().build();
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    @Benchmark
+    public byte[] writeBook() throws IOException {
+        return objectMapper.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public BookDto readBook() throws IOException {
+        return objectMapper.readValue(bookBytes, BookDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeCreateOrUpdateBook() throws IOException {
+        return objectMapper.writeValueAsBytes(createOrUpdateBook);
+    }
+
+    @Benchmark
+    public CreateOrUpdateBookDto readCreateOrUpdateBook() throws IOException {
+        return objectMapper.readValue(createOrUpdateBookBytes, CreateOrUpdateBookDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeBookSet100() throws IOException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public Set<BookDto> readBookSet100() throws IOException {
+        return objectMapper.readValue(booksBytes, BOOK_SET_TYPE);
+    }
+}
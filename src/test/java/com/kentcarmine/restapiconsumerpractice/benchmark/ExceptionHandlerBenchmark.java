@@ -0,0 +1,98 @@
+package com.kentcarmine.restapiconsumerpractice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kentcarmine.restapiconsumerpractice.controller.errorhandling.CustomRestExceptionHandler;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.exception.OverloadedException;
+import com.kentcarmine.restapiconsumerpractice.exception.UnknownException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.concurrent.TimeUnit;
+
+// Error paths from throwing the exception to the serialized ApiError body, as a client would receive them. Bodies the
+// handler has already serialized are returned as they are, as the byte[] message converter would write them.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class ExceptionHandlerBenchmark {
+
+    private CustomRestExceptionHandler handler;
+    private ObjectMapper objectMapper;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private CreateOrUpdateBookDto invalidBook;
+
+    @Setup
+    public void setUp() {
+        handler = new CustomRestExceptionHandler();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        invalidBook = new CreateOrUpdateBookDto(" ", null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public byte[] bookNotFound() throws JsonProcessingException {
+        ResponseEntity<Object> response;
+        try {
+            throw new BookNotFoundException(7L);
+        } catch (BookNotFoundException e) {
+            response = handler.handleBookNotFoundException(e, null);
+        }
+        return body(response);
+    }
+
+    @Benchmark
+    public byte[] constraintViolation() throws JsonProcessingException {
+        ResponseEntity<Object> response;
+        try {
+            throw new ConstraintViolationException(validator.validate(invalidBook));
+        } catch (ConstraintViolationException e) {
+            response = handler.handleConstraintViolation(e, null);
+        }
+        return body(response);
+    }
+
+    @Benchmark
+    public byte[] unknownError() throws JsonProcessingException {
+        ResponseEntity<Object> response;
+        try {
+            throw new UnknownException("upstream failed");
+        } catch (UnknownException e) {
+            response = handler.handleAll(e, null);
+        }
+        return body(response);
+    }
+
+    @Benchmark
+    public byte[] overloaded() throws JsonProcessingException {
+        ResponseEntity<Object> response;
+        try {
+            throw new OverloadedException("GET /proxy/api/v1/books/{id}", 1);
+        } catch (OverloadedException e) {
+            response = handler.handleOverloaded(e, null);
+        }
+        return body(response);
+    }
+
+    private byte[] body(ResponseEntity<Object> response) throws JsonProcessingException {
+        Object body = response.getBody();
+        return body instanceof byte[] ? (byte[]) body : objectMapper.writeValueAsBytes(body);
+    }
+}
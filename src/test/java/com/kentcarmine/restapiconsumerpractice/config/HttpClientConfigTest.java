@@ -0,0 +1,88 @@
+package com.kentcarmine.restapiconsumerpractice.config;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.loadtest.StubUpstreamServer;
+import com.kentcarmine.restapiconsumerpractice.service.support.CompressionMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientConfigTest {
+
+    HttpClientConfig httpClientConfig = new HttpClientConfig();
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    StubUpstreamServer upstream;
+
+    PoolingHttpClientConnectionManager connectionManager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstream = new StubUpstreamServer(10).withETags();
+        connectionManager = httpClientConfig.upstreamConnectionManager(10, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstream.close();
+        connectionManager.close();
+    }
+
+    @Test
+    void cachingClient_revalidatesWithETag() throws IOException {
+        try (CloseableHttpClient httpClient = httpClient(true)) {
+            RestTemplate restTemplate = new RestTemplate(httpClientConfig.upstreamRequestFactory(httpClient));
+
+            BookDto first = restTemplate.getForObject(upstream.getBaseUrl() + "/1", BookDto.class);
+            BookDto second = restTemplate.getForObject(upstream.getBaseUrl() + "/1", BookDto.class);
+
+            assertEquals(first.getTitle(), second.getTitle());
+            assertEquals(2, upstream.getRequestCount());
+            assertEquals(1, upstream.getNotModifiedCount());
+        }
+    }
+
+    @Test
+    void plainClient_refetches() throws IOException {
+        try (CloseableHttpClient httpClient = httpClient(false)) {
+            RestTemplate restTemplate = new RestTemplate(httpClientConfig.upstreamRequestFactory(httpClient));
+
+            restTemplate.getForObject(upstream.getBaseUrl() + "/1", BookDto.class);
+            restTemplate.getForObject(upstream.getBaseUrl() + "/1", BookDto.class);
+
+            assertEquals(2, upstream.getRequestCount());
+            assertEquals(0, upstream.getNotModifiedCount());
+        }
+    }
+
+    @Test
+    void gzipResponses_areDecodedAndMetered() throws IOException {
+        upstream.withGzip();
+        try (CloseableHttpClient httpClient = httpClient(false)) {
+            RestTemplate restTemplate = new RestTemplate(httpClientConfig.upstreamRequestFactory(httpClient));
+
+            BookDto[] books = restTemplate.getForObject(upstream.getBaseUrl() + "/", BookDto[].class);
+
+            assertEquals(10, books.length);
+            double wire = meterRegistry.get("restapipractice.compression.compressed_bytes")
+                    .tag("side", CompressionMetrics.UPSTREAM).counter().count();
+            double decoded = meterRegistry.get("restapipractice.compression.uncompressed_bytes")
+                    .tag("side", CompressionMetrics.UPSTREAM).counter().count();
+            assertTrue(wire > 0 && wire < decoded, "wire " + wire + ", decoded " + decoded);
+        }
+    }
+
+    private CloseableHttpClient httpClient(boolean cacheEnabled) {
+        return httpClientConfig.upstreamHttpClient(connectionManager, new CompressionMetrics(meterRegistry), 30000,
+                60000, 2000, 5000, 1000, cacheEnabled, 100, 1048576, true);
+    }
+}
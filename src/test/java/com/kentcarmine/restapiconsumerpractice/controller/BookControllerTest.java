@@ -1,17 +1,26 @@
 package com.kentcarmine.restapiconsumerpractice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.kentcarmine.restapiconsumerpractice.controller.errorhandling.CustomRestExceptionHandler;
 import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookPageDto;
 import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
 import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.exception.InvalidPageRequestException;
 import com.kentcarmine.restapiconsumerpractice.exception.UnknownException;
+import com.kentcarmine.restapiconsumerpractice.exception.UpstreamUnavailableException;
 import com.kentcarmine.restapiconsumerpractice.helper.JsonConverterHelper;
+import com.kentcarmine.restapiconsumerpractice.service.BookPageService;
 import com.kentcarmine.restapiconsumerpractice.service.BookService;
+import com.kentcarmine.restapiconsumerpractice.service.support.Staleness;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.MediaType;
@@ -23,15 +32,23 @@ import javax.validation.ConstraintViolationException;
 import java.awt.print.Book;
 import java.net.ConnectException;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.hasItem;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -43,6 +60,15 @@ class BookControllerTest {
     @Mock
     BookService bookService;
 
+    @Mock
+    BookPageService bookPageService;
+
+    @Spy
+    BookStreamWriter bookStreamWriter = new BookStreamWriter(new ObjectMapper());
+
+    @Spy
+    ConditionalResponses conditionalResponses = new ConditionalResponses(0);
+
     @InjectMocks
     BookController bookController;
 
@@ -74,6 +100,74 @@ class BookControllerTest {
         verify(bookService, times(1)).getBookById(any());
     }
 
+    @Test
+    void getBookById_notModified() throws Exception {
+        when(bookService.getBookById(any())).thenReturn(bookDto1);
+        String eTag = mockMvc.perform(get("/proxy/api/v1/books/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(eTag);
+
+        mockMvc.perform(get("/proxy/api/v1/books/1").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        when(bookService.getBookById(any())).thenReturn(new BookDto(1L, "Title 1", "Another Author"));
+        mockMvc.perform(get("/proxy/api/v1/books/1").header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getBookById_smile() throws Exception {
+        when(bookService.getBookById(any())).thenReturn(bookDto1);
+        byte[] body = mockMvc.perform(get("/proxy/api/v1/books/1").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        BookDto decoded = new SmileMapper().readValue(body, BookDto.class);
+        assertEquals(bookDto1.getId(), decoded.getId());
+        assertEquals(bookDto1.getTitle(), decoded.getTitle());
+        assertEquals(bookDto1.getAuthor(), decoded.getAuthor());
+    }
+
+    @Test
+    void getBookById_eTagDiffersPerFormat() throws Exception {
+        when(bookService.getBookById(any())).thenReturn(bookDto1);
+        String jsonETag = mockMvc.perform(get("/proxy/api/v1/books/1").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader("ETag");
+        String smileETag = mockMvc.perform(get("/proxy/api/v1/books/1").accept("application/x-jackson-smile"))
+                .andReturn().getResponse().getHeader("ETag");
+        String cborETag = mockMvc.perform(get("/proxy/api/v1/books/1")
+                        .header("Accept", "application/json;q=0.5, application/cbor"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        assertEquals(3, Set.of(jsonETag, smileETag, cborETag).size());
+        mockMvc.perform(get("/proxy/api/v1/books/1").accept("application/x-jackson-smile")
+                        .header("If-None-Match", jsonETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"));
+    }
+
+    @Test
+    void getBookById_stale_hasWarningAndAge() throws Exception {
+        when(bookService.getBookById(any())).thenAnswer(invocation -> {
+            Staleness.mark(42_000, true);
+            return bookDto1;
+        });
+        mockMvc.perform(get("/proxy/api/v1/books/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Age", "42"))
+                .andExpect(header().string("Warning", "111 - \"Revalidation Failed\""));
+
+        when(bookService.getBookById(any())).thenReturn(bookDto1);
+        mockMvc.perform(get("/proxy/api/v1/books/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Warning"));
+    }
+
     @Test
     void getBookById_noSuchId() throws Exception {
         when(bookService.getBookById(any())).thenThrow(new BookNotFoundException(1L));
@@ -83,6 +177,38 @@ class BookControllerTest {
         verify(bookService, times(1)).getBookById(any());
     }
 
+    @Test
+    void getBookById_noSuchId_preSerializedBodyMatchesApiError() throws Exception {
+        when(bookService.getBookById(any())).thenThrow(new BookNotFoundException(1234L));
+
+        mockMvc.perform(get("/proxy/api/v1/books/1234").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("{\"status\":\"NOT_FOUND\",\"message\":\"Book with id = 1234 was not found\","
+                        + "\"errors\":[\"Book with id = 1234 was not found\"]}", true));
+    }
+
+    @Test
+    void getBookById_noSuchId_smile() throws Exception {
+        when(bookService.getBookById(any())).thenThrow(new BookNotFoundException(1L));
+
+        byte[] body = mockMvc.perform(get("/proxy/api/v1/books/1").accept("application/x-jackson-smile"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals("NOT_FOUND", new SmileMapper().readTree(body).get("status").asText());
+    }
+
+    @Test
+    void getBookById_upstreamUnavailable() throws Exception {
+        when(bookService.getBookById(any())).thenThrow(new UpstreamUnavailableException());
+
+        mockMvc.perform(get("/proxy/api/v1/books/1"))
+                .andExpect(status().isServiceUnavailable());
+        verify(bookService, times(1)).getBookById(any());
+    }
+
     @Test
     void getAllBooks_success() throws Exception {
         when(bookService.getAllBooks()).thenReturn(bookDtoSet);
@@ -93,6 +219,35 @@ class BookControllerTest {
         verify(bookService, times(1)).getAllBooks();
     }
 
+    @Test
+    void getAllBooks_cbor() throws Exception {
+        when(bookService.getAllBooks()).thenReturn(bookDtoSet);
+        byte[] body = mockMvc.perform(get("/proxy/api/v1/books/").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        BookDto[] decoded = new CBORMapper().readValue(body, BookDto[].class);
+        assertEquals(2, decoded.length);
+        assertEquals(Set.of(1L, 2L), Set.of(decoded[0].getId(), decoded[1].getId()));
+    }
+
+    @Test
+    void getAllBooks_notModifiedRegardlessOfOrder() throws Exception {
+        when(bookService.getAllBooks()).thenReturn(new LinkedHashSet<>(List.of(bookDto1, bookDto2)));
+        String eTag = mockMvc.perform(get("/proxy/api/v1/books/"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        when(bookService.getAllBooks()).thenReturn(new LinkedHashSet<>(List.of(bookDto2, bookDto1)));
+        mockMvc.perform(get("/proxy/api/v1/books/").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        when(bookService.getAllBooks()).thenReturn(new LinkedHashSet<>(List.of(bookDto1)));
+        mockMvc.perform(get("/proxy/api/v1/books/").header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void getAllBooks_generalError() throws Exception {
         when(bookService.getAllBooks()).thenThrow(new UnknownException());
@@ -103,6 +258,75 @@ class BookControllerTest {
         verify(bookService, times(1)).getAllBooks();
     }
 
+    @Test
+    void getAllBooksPage_firstPage() throws Exception {
+        when(bookPageService.getAllBooks(any(), anyInt(), any()))
+                .thenReturn(new BookPageDto(List.of(bookDto1), 0, 1, 2, "cursor"));
+
+        mockMvc.perform(get("/proxy/api/v1/books/").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("cursor"));
+
+        verify(bookPageService, times(1)).getAllBooks(null, 1, null);
+        verify(bookService, times(0)).getAllBooks();
+    }
+
+    @Test
+    void getAllBooksByAuthorPage_invalidRequest() throws Exception {
+        when(bookPageService.getAllBooksByAuthor(anyString(), any(), anyInt(), any()))
+                .thenThrow(new InvalidPageRequestException("size must be between 1 and 1000"));
+
+        mockMvc.perform(get("/proxy/api/v1/books/author/" + bookDto1.getAuthor()).param("size", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookService, times(0)).getAllBooksByAuthor(anyString());
+    }
+
+    @Test
+    void streamAllBooks_ndjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookDto> consumer = invocation.getArgument(0);
+            consumer.accept(bookDto1);
+            consumer.accept(bookDto2);
+            return null;
+        }).when(bookService).streamAllBooks(any());
+
+        MvcResult result = mockMvc.perform(get("/proxy/api/v1/books/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"id\":1,\"title\":\"Title 1\",\"author\":\"Author 1\"}\n" +
+                        "{\"id\":2,\"title\":\"Title 2\",\"author\":\"Author 2\"}\n"));
+
+        verify(bookService, times(1)).streamAllBooks(any());
+    }
+
+    @Test
+    void streamAllBooks_jsonArray() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookDto> consumer = invocation.getArgument(0);
+            consumer.accept(bookDto1);
+            consumer.accept(bookDto2);
+            return null;
+        }).when(bookService).streamAllBooks(any());
+
+        MvcResult result = mockMvc.perform(get("/proxy/api/v1/books/stream").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(
+                        "[{\"id\":1,\"title\":\"Title 1\",\"author\":\"Author 1\"}," +
+                        "{\"id\":2,\"title\":\"Title 2\",\"author\":\"Author 2\"}]"));
+    }
+
     @Test
     void getAllBooksByTitle_existingTitle() throws Exception {
         when(bookService.getAllBooksByTitle(any())).thenReturn(Set.of(bookDto1));
@@ -178,6 +402,24 @@ class BookControllerTest {
         verify(bookService, times(1)).createNewBook(any());
     }
 
+    @Test
+    void createNewBook_smile() throws Exception {
+        BookDto created = new BookDto(100L, "Test Title 3", "Test Author 3");
+        when(bookService.createNewBook(any())).thenReturn(created);
+        SmileMapper smileMapper = new SmileMapper();
+
+        byte[] body = mockMvc.perform(post("/proxy/api/v1/books/new")
+                .content(smileMapper.writeValueAsBytes(new CreateOrUpdateBookDto("Test Title 3", "Test Author 3")))
+                .contentType("application/x-jackson-smile")
+                .accept("application/x-jackson-smile"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(100L, smileMapper.readValue(body, BookDto.class).getId());
+        verify(bookService).createNewBook(argThat(book -> "Test Title 3".equals(book.getTitle())
+                && "Test Author 3".equals(book.getAuthor())));
+    }
+
     @Test
     void createNewBook_nullBook() throws Exception {
         CreateOrUpdateBookDto newBook = null;
@@ -0,0 +1,126 @@
+package com.kentcarmine.restapiconsumerpractice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kentcarmine.restapiconsumerpractice.controller.errorhandling.CustomRestExceptionHandler;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.service.BookPageService;
+import com.kentcarmine.restapiconsumerpractice.service.BookService;
+import com.kentcarmine.restapiconsumerpractice.service.support.AimdConcurrencyLimit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitInterceptorTest {
+
+    private static final String BY_ID = "GET /proxy/api/v1/books/{id}";
+    private static final String STREAM = "GET /proxy/api/v1/books/stream";
+
+    @Mock
+    BookService bookService;
+
+    @Mock
+    BookPageService bookPageService;
+
+    SimpleMeterRegistry meterRegistry;
+
+    ConcurrencyLimitInterceptor interceptor;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new ConcurrencyLimitInterceptor(meterRegistry, 1, 1, 4, 500, 10000, 0.5, 2);
+        BookController bookController = new BookController(bookService, bookPageService,
+                new BookStreamWriter(new ObjectMapper()), new ConditionalResponses(0));
+        mockMvc = MockMvcBuilders.standaloneSetup(bookController)
+                .setControllerAdvice(new CustomRestExceptionHandler())
+                .addInterceptors(interceptor)
+                .build();
+    }
+
+    @Test
+    void requestOverLimit_isShedWithRetryAfter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookService.getBookById(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new BookDto(1L, "Title 1", "Author 1");
+        });
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return mockMvc.perform(get("/proxy/api/v1/books/1")).andReturn().getResponse().getStatus();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        mockMvc.perform(get("/proxy/api/v1/books/2"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.message").value("Proxy is overloaded"));
+        verify(bookService, never()).getBookById(2L);
+
+        release.countDown();
+        assertEquals(200, first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, interceptor.getLimit(BY_ID).getInFlight());
+        assertEquals(1, meterRegistry.get("restapipractice.concurrency_limit.shed")
+                .tag("endpoint", BY_ID).functionCounter().count());
+    }
+
+    @Test
+    void slowlyReadStream_doesNotCutLimit() throws Exception {
+        doAnswer(invocation -> {
+            Thread.sleep(700);
+            invocation.<Consumer<BookDto>>getArgument(0).accept(new BookDto(1L, "Title 1", "Author 1"));
+            return null;
+        }).when(bookService).streamAllBooks(any());
+
+        MvcResult result = mockMvc.perform(get("/proxy/api/v1/books/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        AimdConcurrencyLimit limit = interceptor.getLimit(STREAM);
+        assertEquals(0, limit.getInFlight());
+        // 700 ms is past latency_threshold_ms but within the streaming threshold, so the fully used limit of 1 grows
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void endpointsHaveSeparateLimits() throws Exception {
+        when(bookService.getBookById(any())).thenReturn(new BookDto(1L, "Title 1", "Author 1"));
+
+        mockMvc.perform(get("/proxy/api/v1/books/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/proxy/api/v1/books/")).andExpect(status().isOk());
+
+        // A fast request that used the whole limit of 1 raises it
+        assertEquals(2, interceptor.getLimit(BY_ID).getLimit());
+        assertNotNull(interceptor.getLimit("GET /proxy/api/v1/books/"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.kentcarmine.restapiconsumerpractice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kentcarmine.restapiconsumerpractice.controller.errorhandling.CustomRestExceptionHandler;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.loadtest.StubUpstreamServer;
+import com.kentcarmine.restapiconsumerpractice.service.PassThroughBookServiceImpl;
+import com.kentcarmine.restapiconsumerpractice.service.UpstreamOperation;
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamTimers;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PassThroughBookControllerTest {
+
+    StubUpstreamServer upstream;
+
+    SimpleMeterRegistry meterRegistry;
+
+    CircuitBreakerRegistry circuitBreakerRegistry;
+
+    PassThroughBookServiceImpl passThroughBookService;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstream = new StubUpstreamServer(10);
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        String baseUrl = upstream.getBaseUrl();
+        passThroughBookService = new PassThroughBookServiceImpl(new RestTemplate(), new UpstreamTimers(meterRegistry),
+                circuitBreakerRegistry, BulkheadRegistry.ofDefaults(), true, baseUrl + "/", baseUrl + "/title/",
+                baseUrl + "/author/", baseUrl + "/");
+        mockMvc = MockMvcBuilders.standaloneSetup(new PassThroughBookController(passThroughBookService))
+                .setControllerAdvice(new CustomRestExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstream.close();
+    }
+
+    @Test
+    void getBookById_copiesUpstreamBody() throws Exception {
+        byte[] body = mockMvc.perform(get("/proxy/raw/api/v1/books/3"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        BookDto book = new ObjectMapper().readValue(body, BookDto.class);
+        assertEquals(3L, book.getId());
+    }
+
+    @Test
+    void getBookById_upstream404_isBookNotFound() throws Exception {
+        mockMvc.perform(get("/proxy/raw/api/v1/books/999"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.message").value("Book with id = 999 was not found"));
+    }
+
+    @Test
+    void getAllBooks_copiesUpstreamBody() throws Exception {
+        mockMvc.perform(get("/proxy/raw/api/v1/books/"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(10));
+    }
+
+    @Test
+    void upstreamError_isPassedOn() throws Exception {
+        upstream.withErrorRate(1.0);
+
+        mockMvc.perform(get("/proxy/raw/api/v1/books/author/Author 1"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.status").value(500));
+    }
+
+    @Test
+    void upstreamDown_isUpstreamUnavailable() throws Exception {
+        upstream.close();
+
+        mockMvc.perform(get("/proxy/raw/api/v1/books/1"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void circuitOpen_isUpstreamUnavailable() throws Exception {
+        circuitBreakerRegistry.circuitBreaker(UpstreamOperation.FIND_BY_ID.getTagValue()).transitionToForcedOpenState();
+
+        mockMvc.perform(get("/proxy/raw/api/v1/books/1"))
+                .andExpect(status().isServiceUnavailable());
+        assertEquals(0, upstream.getRequestCount());
+    }
+
+    @Test
+    void clientWriteFails_isClientsIOExceptionNotUpstreamFailure() {
+        IOException clientGone = new IOException("Broken pipe");
+
+        IOException e = assertThrows(IOException.class, () -> passThroughBookService.getBookById(3L,
+                (status, contentType, contentLength, body) -> {
+                    throw clientGone;
+                }));
+
+        assertSame(clientGone, e);
+        assertEquals(0, circuitBreakerRegistry.circuitBreaker(UpstreamOperation.FIND_BY_ID.getTagValue())
+                .getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void upstreamTimer_stopsAtResponseHeaders() throws Exception {
+        long start = System.nanoTime();
+        passThroughBookService.getBookById(3L, (status, contentType, contentLength, body) -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            body.transferTo(OutputStream.nullOutputStream());
+        });
+        double elapsedMillis = (System.nanoTime() - start) / 1e6;
+
+        double millis = meterRegistry.get(UpstreamTimers.METRIC_NAME)
+                .tag("operation", UpstreamOperation.FIND_BY_ID.getTagValue()).tag("status", "200")
+                .timer().totalTime(TimeUnit.MILLISECONDS);
+        assertTrue(millis <= elapsedMillis - 500, "timed " + millis + " ms of " + elapsedMillis);
+    }
+}
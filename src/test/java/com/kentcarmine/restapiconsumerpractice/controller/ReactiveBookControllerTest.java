@@ -0,0 +1,109 @@
+package com.kentcarmine.restapiconsumerpractice.controller;
+
+import com.kentcarmine.restapiconsumerpractice.controller.errorhandling.CustomRestExceptionHandler;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.helper.JsonConverterHelper;
+import com.kentcarmine.restapiconsumerpractice.service.ReactiveBookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveBookControllerTest {
+
+    @Mock
+    ReactiveBookService bookService;
+
+    @InjectMocks
+    ReactiveBookController bookController;
+
+    BookDto bookDto1;
+    BookDto bookDto2;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        bookDto1 = new BookDto(1L, "Title 1", "Author 1");
+        bookDto2 = new BookDto(2L, "Title 2", "Author 2");
+
+        mockMvc = MockMvcBuilders.standaloneSetup(bookController)
+                .setControllerAdvice(new CustomRestExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void getBookById_existingId() throws Exception {
+        when(bookService.getBookById(any())).thenReturn(Mono.just(bookDto1));
+
+        MvcResult result = mockMvc.perform(get("/proxy/api/v1/books/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void getBookById_noSuchId() throws Exception {
+        when(bookService.getBookById(any())).thenReturn(Mono.error(new BookNotFoundException(1L)));
+
+        MvcResult result = mockMvc.perform(get("/proxy/api/v1/books/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAllBooks_success() throws Exception {
+        when(bookService.getAllBooks()).thenReturn(Flux.just(bookDto1, bookDto2));
+
+        MvcResult result = mockMvc.perform(get("/proxy/api/v1/books/"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void createNewBook_valid() throws Exception {
+        when(bookService.createNewBook(any())).thenReturn(Mono.just(new BookDto(100L, "Test Title 3", "Test Author 3")));
+
+        CreateOrUpdateBookDto newBook = new CreateOrUpdateBookDto("Test Title 3", "Test Author 3");
+
+        MvcResult result = mockMvc.perform(post("/proxy/api/v1/books/new")
+                .content(JsonConverterHelper.asJsonString(newBook))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated());
+
+        verify(bookService, times(1)).createNewBook(any());
+    }
+}
@@ -0,0 +1,130 @@
+package com.kentcarmine.restapiconsumerpractice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.service.BookPageService;
+import com.kentcarmine.restapiconsumerpractice.service.BookService;
+import com.kentcarmine.restapiconsumerpractice.service.support.CompressionMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class ResponseCompressionFilterTest {
+
+    @Mock
+    BookService bookService;
+
+    @Mock
+    BookPageService bookPageService;
+
+    SimpleMeterRegistry meterRegistry;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        BookController bookController = new BookController(bookService, bookPageService,
+                new BookStreamWriter(new ObjectMapper()), new ConditionalResponses(0));
+        mockMvc = MockMvcBuilders.standaloneSetup(bookController)
+                .addFilters(new ResponseCompressionFilter(new CompressionMetrics(meterRegistry), 1024, 6))
+                .build();
+    }
+
+    @Test
+    void largeResponse_isGzipped() throws Exception {
+        Set<BookDto> books = books(100);
+        when(bookService.getAllBooks()).thenReturn(books);
+
+        MockHttpServletResponse response = mockMvc.perform(get("/proxy/api/v1/books/")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn().getResponse();
+
+        BookDto[] decoded = new ObjectMapper().readValue(gunzip(response.getContentAsByteArray()), BookDto[].class);
+        assertEquals(100, decoded.length);
+        double compressed = meterRegistry.get("restapipractice.compression.compressed_bytes")
+                .tag("side", CompressionMetrics.RESPONSE).counter().count();
+        double uncompressed = meterRegistry.get("restapipractice.compression.uncompressed_bytes")
+                .tag("side", CompressionMetrics.RESPONSE).counter().count();
+        assertEquals(response.getContentAsByteArray().length, compressed);
+        assertTrue(compressed < uncompressed);
+    }
+
+    @Test
+    void smallResponse_isSentAsIs() throws Exception {
+        when(bookService.getBookById(1L)).thenReturn(new BookDto(1L, "Title", "Author"));
+
+        mockMvc.perform(get("/proxy/api/v1/books/1").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("Vary", "Accept-Encoding"));
+    }
+
+    @Test
+    void clientWithoutGzip_getsPlainResponse() throws Exception {
+        when(bookService.getAllBooks()).thenReturn(books(100));
+
+        mockMvc.perform(get("/proxy/api/v1/books/").header("Accept-Encoding", "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"));
+    }
+
+    @Test
+    void streamedResponse_flushSendsFirstBytesBeforeThreshold() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/proxy/api/v1/books/stream");
+        request.addHeader("Accept-Encoding", "gzip");
+        request.setAsyncSupported(true);
+        request.setAsyncStarted(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        int[] sentAfterFlush = new int[1];
+
+        new ResponseCompressionFilter(new CompressionMetrics(meterRegistry), 1024, 6).doFilter(request, response,
+                (req, res) -> {
+                    res.setContentType("application/x-ndjson");
+                    res.getOutputStream().write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+                    res.getOutputStream().flush();
+                    sentAfterFlush[0] = response.getContentAsByteArray().length;
+                });
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertTrue(sentAfterFlush[0] > 0);
+    }
+
+    private static Set<BookDto> books(int count) {
+        Set<BookDto> books = new HashSet<>();
+        for (long id = 1; id <= count; id++) {
+            books.add(new BookDto(id, "Title " + id, "Author " + (id % 10)));
+        }
+        return books;
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
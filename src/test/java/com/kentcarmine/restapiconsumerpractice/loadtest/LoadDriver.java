@@ -0,0 +1,159 @@
+package com.kentcarmine.restapiconsumerpractice.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+// Closed-loop load generator: each worker sends one request at a time until the duration elapses
+public class LoadDriver {
+
+    private final HttpClient httpClient;
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+
+    public LoadDriver(int concurrency, Duration warmup, Duration duration) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    // requestFactory receives a per-worker sequence number so callers can vary ids or endpoints
+    public LoadResult run(IntFunction<HttpRequest> requestFactory) throws InterruptedException {
+        return run(requestFactory, request -> null);
+    }
+
+    // operationOf names the operation a request belongs to, so the result also breaks down per operation
+    public LoadResult run(IntFunction<HttpRequest> requestFactory, Function<HttpRequest, String> operationOf)
+            throws InterruptedException {
+        return run(requestFactory, operationOf, (request, response) -> {
+        });
+    }
+
+    // onResponse sees every response that arrived, so later requests can depend on earlier ones
+    public LoadResult run(IntFunction<HttpRequest> requestFactory, Function<HttpRequest, String> operationOf,
+                          BiConsumer<HttpRequest, HttpResponse<byte[]>> onResponse) throws InterruptedException {
+        runPhase(requestFactory, operationOf, onResponse, warmup);
+        return runPhase(requestFactory, operationOf, onResponse, duration);
+    }
+
+    private LoadResult runPhase(IntFunction<HttpRequest> requestFactory, Function<HttpRequest, String> operationOf,
+                                BiConsumer<HttpRequest, HttpResponse<byte[]>> onResponse, Duration phase)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Worker> workers = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        long start = System.nanoTime();
+        long deadline = start + phase.toNanos();
+
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(i, requestFactory, operationOf, onResponse, deadline, done);
+            workers.add(worker);
+            executor.execute(worker);
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        LoadResult.Builder result = new LoadResult.Builder(elapsedNanos);
+        for (Worker worker : workers) {
+            worker.total.addTo(result);
+            worker.byOperation.forEach((operation, recorder) -> recorder.addTo(result.operation(operation)));
+        }
+        return result.build();
+    }
+
+    private class Worker implements Runnable {
+        private final int workerId;
+        private final IntFunction<HttpRequest> requestFactory;
+        private final Function<HttpRequest, String> operationOf;
+        private final BiConsumer<HttpRequest, HttpResponse<byte[]>> onResponse;
+        private final long deadline;
+        private final CountDownLatch done;
+
+        private final Recorder total = new Recorder();
+        private final Map<String, Recorder> byOperation = new HashMap<>();
+
+        private Worker(int workerId, IntFunction<HttpRequest> requestFactory, Function<HttpRequest, String> operationOf,
+                       BiConsumer<HttpRequest, HttpResponse<byte[]>> onResponse, long deadline, CountDownLatch done) {
+            this.workerId = workerId;
+            this.requestFactory = requestFactory;
+            this.operationOf = operationOf;
+            this.onResponse = onResponse;
+            this.deadline = deadline;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                int sequence = workerId;
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = requestFactory.apply(sequence);
+                    String operation = operationOf.apply(request);
+                    sequence += concurrency;
+                    long start = System.nanoTime();
+                    HttpResponse<byte[]> response;
+                    try {
+                        response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                    } catch (Exception e) {
+                        response = null;
+                    }
+                    long latencyNanos = System.nanoTime() - start;
+                    int status = response == null ? -1 : response.statusCode();
+                    if (response != null) {
+                        onResponse.accept(request, response);
+                    }
+                    total.record(latencyNanos, status);
+                    if (operation != null) {
+                        byOperation.computeIfAbsent(operation, k -> new Recorder()).record(latencyNanos, status);
+                    }
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+    }
+
+    private static class Recorder {
+        private long[] latenciesNanos = new long[1024];
+        private int count;
+        private final int[] statusCounts = new int[600];
+        private int errors;
+
+        // status -1 means the request failed before a response arrived
+        private void record(long latencyNanos, int status) {
+            if (status < 0) {
+                errors++;
+            } else {
+                statusCounts[Math.min(status, statusCounts.length - 1)]++;
+            }
+            if (count == latenciesNanos.length) {
+                latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+            }
+            latenciesNanos[count++] = latencyNanos;
+        }
+
+        private void addTo(LoadResult.Builder result) {
+            result.add(latenciesNanos, count, statusCounts, errors);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.kentcarmine.restapiconsumerpractice.loadtest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class LoadResult {
+
+    private final long requests;
+    private final long transportErrors;
+    private final Map<Integer, Long> statusCounts;
+    private final double elapsedSeconds;
+    private final long[] sortedLatenciesNanos;
+    private final Map<String, LoadResult> operations;
+
+    private LoadResult(long requests, long transportErrors, Map<Integer, Long> statusCounts, double elapsedSeconds,
+                       long[] sortedLatenciesNanos, Map<String, LoadResult> operations) {
+        this.requests = requests;
+        this.transportErrors = transportErrors;
+        this.statusCounts = statusCounts;
+        this.elapsedSeconds = elapsedSeconds;
+        this.sortedLatenciesNanos = sortedLatenciesNanos;
+        this.operations = operations;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public double getThroughput() {
+        return requests / elapsedSeconds;
+    }
+
+    // Transport failures plus 5xx responses, as a fraction of all requests
+    public double getErrorRate() {
+        long serverErrors = statusCounts.entrySet().stream()
+                .filter(e -> e.getKey() >= 500)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        return requests == 0 ? 0 : (double) (transportErrors + serverErrors) / requests;
+    }
+
+    public Map<Integer, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    // Results per operation name, empty unless the driver was given a way to name operations
+    public Map<String, LoadResult> getOperations() {
+        return operations;
+    }
+
+    public double getPercentileMillis(double percentile) {
+        if (sortedLatenciesNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatenciesNanos.length) - 1;
+        return sortedLatenciesNanos[Math.max(0, Math.min(index, sortedLatenciesNanos.length - 1))] / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("requests=%d throughput=%.1f/s p50=%.1fms p99=%.1fms p999=%.1fms errors=%.2f%% status=%s",
+                requests, getThroughput(), getPercentileMillis(50), getPercentileMillis(99),
+                getPercentileMillis(99.9), getErrorRate() * 100, statusCounts);
+    }
+
+    static class Builder {
+        private final long elapsedNanos;
+        private long[] latencies = new long[0];
+        private long requests;
+        private long transportErrors;
+        private final Map<Integer, Long> statusCounts = new TreeMap<>();
+        private final Map<String, Builder> operations = new TreeMap<>();
+
+        Builder(long elapsedNanos) {
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        Builder operation(String operation) {
+            return operations.computeIfAbsent(operation, k -> new Builder(elapsedNanos));
+        }
+
+        Builder add(long[] workerLatencies, int count, int[] workerStatusCounts, int workerErrors) {
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + count);
+            System.arraycopy(workerLatencies, 0, latencies, offset, count);
+            requests += count;
+            transportErrors += workerErrors;
+            for (int status = 0; status < workerStatusCounts.length; status++) {
+                if (workerStatusCounts[status] > 0) {
+                    statusCounts.merge(status, (long) workerStatusCounts[status], Long::sum);
+                }
+            }
+            return this;
+        }
+
+        LoadResult build() {
+            Arrays.sort(latencies);
+            Map<String, LoadResult> operationResults = new TreeMap<>();
+            operations.forEach((operation, builder) -> operationResults.put(operation, builder.build()));
+            return new LoadResult(requests, transportErrors, statusCounts, elapsedNanos / 1e9, latencies,
+                    Collections.unmodifiableMap(operationResults));
+        }
+    }
+}
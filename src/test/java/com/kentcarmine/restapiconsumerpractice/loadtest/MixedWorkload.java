@@ -0,0 +1,124 @@
+package com.kentcarmine.restapiconsumerpractice.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Weighted mix of the seven BookController endpoints against a StubUpstreamServer catalogue. The operation and
+// target chosen for a sequence number are deterministic, so runs with the same settings send the same traffic,
+// except that deletes take the ids of books this workload created; pass onResponse to the driver to collect them.
+public class MixedWorkload {
+
+    public enum Operation {
+        GET_BY_ID,
+        GET_ALL,
+        GET_BY_TITLE,
+        GET_BY_AUTHOR,
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    private static final String OPERATION_HEADER = "X-Load-Operation";
+    private static final Pattern CREATED_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final String baseUrl;
+    private final int catalogueSize;
+    private final List<Operation> wheel = new ArrayList<>();
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+
+    public MixedWorkload(String baseUrl, int catalogueSize, Map<Operation, Integer> weights) {
+        this.baseUrl = baseUrl;
+        this.catalogueSize = catalogueSize;
+        weights.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(operation);
+            }
+        });
+    }
+
+    // Mostly single-book reads, some searches and listings, and a trickle of writes
+    public static MixedWorkload readHeavy(String baseUrl, int catalogueSize) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        weights.put(Operation.GET_BY_ID, 50);
+        weights.put(Operation.GET_ALL, 5);
+        weights.put(Operation.GET_BY_TITLE, 15);
+        weights.put(Operation.GET_BY_AUTHOR, 15);
+        weights.put(Operation.CREATE, 5);
+        weights.put(Operation.UPDATE, 5);
+        weights.put(Operation.DELETE, 5);
+        return new MixedWorkload(baseUrl, catalogueSize, weights);
+    }
+
+    public HttpRequest request(int sequence) {
+        SplittableRandom random = new SplittableRandom(sequence);
+        Operation operation = wheel.get(random.nextInt(wheel.size()));
+        long id = random.nextInt(catalogueSize) + 1;
+        Long createdId = operation == Operation.DELETE ? createdIds.poll() : null;
+        // nothing created yet to delete, so create something instead
+        if (operation == Operation.DELETE && createdId == null) {
+            operation = Operation.CREATE;
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder().header(OPERATION_HEADER, operation.name());
+        switch (operation) {
+            case GET_ALL:
+                return request.uri(URI.create(baseUrl)).GET().build();
+            case GET_BY_TITLE:
+                return request.uri(URI.create(baseUrl + "/title/" + encode("Title " + id))).GET().build();
+            case GET_BY_AUTHOR:
+                return request.uri(URI.create(baseUrl + "/author/" + encode("Author " + (id % 100)))).GET().build();
+            case CREATE:
+                return request.uri(URI.create(baseUrl + "/new"))
+                        .header("Content-Type", "application/json")
+                        .POST(bookBody("Load " + sequence, "Author " + (id % 100)))
+                        .build();
+            case UPDATE:
+                return request.uri(URI.create(baseUrl + "/" + id))
+                        .header("Content-Type", "application/json")
+                        .PUT(bookBody("Title " + id, "Author " + (id % 100)))
+                        .build();
+            case DELETE:
+                // only books created by this workload are deleted, so the catalogue the reads use stays intact
+                return request.uri(URI.create(baseUrl + "/" + createdId))
+                        .DELETE()
+                        .build();
+            case GET_BY_ID:
+            default:
+                return request.uri(URI.create(baseUrl + "/" + id)).GET().build();
+        }
+    }
+
+    public String operationOf(HttpRequest request) {
+        return request.headers().firstValue(OPERATION_HEADER).orElse(null);
+    }
+
+    public void onResponse(HttpRequest request, HttpResponse<byte[]> response) {
+        if (!Operation.CREATE.name().equals(operationOf(request)) || response.statusCode() / 100 != 2) {
+            return;
+        }
+        Matcher id = CREATED_ID.matcher(new String(response.body(), StandardCharsets.UTF_8));
+        if (id.find()) {
+            createdIds.add(Long.parseLong(id.group(1)));
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static HttpRequest.BodyPublisher bookBody(String title, String author) {
+        return HttpRequest.BodyPublishers.ofString("{\"title\":\"" + title + "\",\"author\":\"" + author + "\"}");
+    }
+}
@@ -0,0 +1,78 @@
+package com.kentcarmine.restapiconsumerpractice.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Drives all seven BookController endpoints with a read-heavy mix through the real proxy and a stub upstream.
+// Every knob is a system property, e.g.
+//   mvn -Pload-test test -Dtest=MixedWorkloadLoadTest -Dload.concurrency=200 -Dload.upstream_latency_ms=50
+//       -Dload.proxy_properties=restapipractice.cache.enabled=false,restapipractice.index.enabled=true
+@Tag("load")
+class MixedWorkloadLoadTest {
+
+    private static final int CATALOGUE_SIZE = Integer.getInteger("load.catalogue_size", 1000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+    private static final int WARMUP_S = Integer.getInteger("load.warmup_s", 5);
+    private static final int DURATION_S = Integer.getInteger("load.duration_s", 20);
+    private static final long UPSTREAM_LATENCY_MS = Long.getLong("load.upstream_latency_ms", 20);
+    private static final double UPSTREAM_ERROR_RATE =
+            Double.parseDouble(System.getProperty("load.upstream_error_rate", "0.01"));
+    private static final int PAYLOAD_PADDING_BYTES = Integer.getInteger("load.payload_bytes", 256);
+    private static final String PROXY_PROPERTIES = System.getProperty("load.proxy_properties", "");
+
+    static StubUpstreamServer upstream;
+
+    @BeforeAll
+    static void startUpstream() throws Exception {
+        upstream = new StubUpstreamServer(CATALOGUE_SIZE)
+                .withLatencyMs(UPSTREAM_LATENCY_MS)
+                .withErrorRate(UPSTREAM_ERROR_RATE)
+                .withPayloadPaddingBytes(PAYLOAD_PADDING_BYTES);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        String[] proxyProperties = PROXY_PROPERTIES.isBlank() ? new String[0] : PROXY_PROPERTIES.split(",");
+        ConfigurableApplicationContext proxy = ProxyLauncher.start(upstream, proxyProperties);
+        LoadResult result;
+        try {
+            MixedWorkload workload = MixedWorkload.readHeavy(ProxyLauncher.baseUrl(proxy), CATALOGUE_SIZE);
+            LoadDriver driver = new LoadDriver(CONCURRENCY, Duration.ofSeconds(WARMUP_S), Duration.ofSeconds(DURATION_S));
+            result = driver.run(workload::request, workload::operationOf, workload::onResponse);
+        } finally {
+            proxy.close();
+        }
+
+        System.out.printf("concurrency=%d upstream_latency=%dms upstream_error_rate=%.3f payload_padding=%dB " +
+                        "proxy_properties=%s%n", CONCURRENCY, UPSTREAM_LATENCY_MS, UPSTREAM_ERROR_RATE,
+                PAYLOAD_PADDING_BYTES, PROXY_PROPERTIES);
+        System.out.printf("%-14s %9s %10s %9s %9s %9s %8s  %s%n",
+                "operation", "requests", "req/s", "p50_ms", "p99_ms", "p999_ms", "errors", "status");
+        for (Map.Entry<String, LoadResult> operation : result.getOperations().entrySet()) {
+            print(operation.getKey(), operation.getValue());
+        }
+        print("TOTAL", result);
+
+        assertTrue(result.getRequests() > 0);
+        assertEquals(MixedWorkload.Operation.values().length, result.getOperations().size());
+    }
+
+    private static void print(String name, LoadResult result) {
+        System.out.printf("%-14s %9d %10.1f %9.1f %9.1f %9.1f %7.2f%%  %s%n", name, result.getRequests(),
+                result.getThroughput(), result.getPercentileMillis(50), result.getPercentileMillis(99),
+                result.getPercentileMillis(99.9), result.getErrorRate() * 100, result.getStatusCounts());
+    }
+}
@@ -0,0 +1,42 @@
+package com.kentcarmine.restapiconsumerpractice.loadtest;
+
+import com.kentcarmine.restapiconsumerpractice.RestapiconsumerpracticeApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Boots the real proxy on a random port with the dev profile, pointed at a stub upstream
+public final class ProxyLauncher {
+
+    private ProxyLauncher() {
+    }
+
+    public static ConfigurableApplicationContext start(StubUpstreamServer upstream, String... extraProperties) {
+        // passed as command line arguments so they take precedence over application-dev.properties
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--server.port=0",
+                "--logging.level.com=info",
+                "--logging.level.org=warn",
+                "--restapipractice.root_url=" + upstream.getRootUrl(),
+                "--restapipractice.http.max_connections_total=2000",
+                "--restapipractice.http.max_connections_per_route=2000",
+                "--restapipractice.http.connection_request_timeout_ms=10000",
+                "--restapipractice.resilience.max_concurrent_calls=2000",
+                // runs share no state: a snapshot left by an earlier run would hold another stub's books
+                "--restapipractice.snapshot.enabled=false"));
+        for (String property : extraProperties) {
+            args.add("--" + property);
+        }
+
+        return new SpringApplicationBuilder(RestapiconsumerpracticeApplication.class)
+                .profiles("dev")
+                .run(args.toArray(new String[0]));
+    }
+
+    public static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/proxy/api/v1/books";
+    }
+}
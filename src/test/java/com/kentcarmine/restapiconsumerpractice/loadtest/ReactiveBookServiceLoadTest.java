@@ -0,0 +1,174 @@
+package com.kentcarmine.restapiconsumerpractice.loadtest;
+
+import com.kentcarmine.restapiconsumerpractice.config.HttpClientConfig;
+import com.kentcarmine.restapiconsumerpractice.config.WebClientConfig;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.service.BookServiceImpl;
+import com.kentcarmine.restapiconsumerpractice.service.ReactiveBookServiceImpl;
+import com.kentcarmine.restapiconsumerpractice.service.support.CompressionMetrics;
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamBalancer;
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamTimers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Flux;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Compares the threads needed to hold N concurrent upstream waits: blocking BookServiceImpl vs ReactiveBookServiceImpl.
+// Run with: mvn -Pload-test test
+@Tag("load")
+class ReactiveBookServiceLoadTest {
+
+    private static final int CATALOGUE_SIZE = 1000;
+    private static final long UPSTREAM_LATENCY_MS = 200;
+    private static final int[] CONCURRENCY_LEVELS = {100, 500, 2000};
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final UpstreamTimers UPSTREAM_TIMERS = new UpstreamTimers(new SimpleMeterRegistry());
+
+    static StubUpstreamServer upstream;
+
+    @BeforeAll
+    static void startUpstream() throws Exception {
+        upstream = new StubUpstreamServer(CATALOGUE_SIZE).withLatencyMs(UPSTREAM_LATENCY_MS);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @Test
+    void concurrencyVsThreadCount() throws Exception {
+        System.out.printf("%-10s %12s %12s %12s %12s%n", "mode", "concurrency", "elapsed_ms", "peak_threads", "added_threads");
+
+        for (int concurrency : CONCURRENCY_LEVELS) {
+            Result blocking = runBlocking(concurrency);
+            Result reactive = runReactive(concurrency);
+            print("blocking", concurrency, blocking);
+            print("reactive", concurrency, reactive);
+
+            assertEquals(concurrency, blocking.completed);
+            assertEquals(concurrency, reactive.completed);
+            assertTrue(reactive.addedThreads < 64,
+                    "reactive mode should not need a thread per in-flight request, added " + reactive.addedThreads);
+        }
+    }
+
+    private Result runBlocking(int concurrency) throws Exception {
+        HttpClientConfig httpClientConfig = new HttpClientConfig();
+        PoolingHttpClientConnectionManager connectionManager =
+                httpClientConfig.upstreamConnectionManager(concurrency, concurrency);
+        CloseableHttpClient httpClient = httpClientConfig.upstreamHttpClient(connectionManager,
+                new CompressionMetrics(new SimpleMeterRegistry()), 30000, 60000, 2000, 10000, 10000, false, 0, 0,
+                true);
+        BookServiceImpl bookService = newBookServiceImpl(new RestTemplate(httpClientConfig.upstreamRequestFactory(httpClient)));
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+
+        try {
+            int baseline = THREADS.getThreadCount();
+            THREADS.resetPeakThreadCount();
+            long start = System.nanoTime();
+
+            List<Future<BookDto>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                long id = (i % CATALOGUE_SIZE) + 1;
+                futures.add(executor.submit(() -> bookService.getBookById(id)));
+            }
+            int completed = 0;
+            for (Future<BookDto> future : futures) {
+                if (future.get() != null) {
+                    completed++;
+                }
+            }
+
+            return new Result(completed, (System.nanoTime() - start) / 1_000_000,
+                    THREADS.getPeakThreadCount(), THREADS.getPeakThreadCount() - baseline);
+        } finally {
+            executor.shutdownNow();
+            httpClient.close();
+        }
+    }
+
+    private Result runReactive(int concurrency) {
+        WebClientConfig webClientConfig = new WebClientConfig();
+        ConnectionProvider connectionProvider = webClientConfig.upstreamConnectionProvider(concurrency,
+                concurrency * 2, 30000, 60000, 10000);
+        ReactiveBookServiceImpl bookService = new ReactiveBookServiceImpl(
+                webClientConfig.upstreamWebClient(connectionProvider, UPSTREAM_TIMERS,
+                        new DefaultListableBeanFactory().getBeanProvider(UpstreamBalancer.class), 2000, 10000),
+                upstream.getBaseUrl() + "/",
+                upstream.getBaseUrl() + "/title/",
+                upstream.getBaseUrl() + "/author/",
+                upstream.getBaseUrl() + "/",
+                upstream.getBaseUrl() + "/new",
+                upstream.getBaseUrl() + "/",
+                upstream.getBaseUrl() + "/");
+
+        try {
+            // warm the event loop so its fixed set of threads is not counted as per-request cost
+            bookService.getBookById(1L).block();
+
+            int baseline = THREADS.getThreadCount();
+            THREADS.resetPeakThreadCount();
+            long start = System.nanoTime();
+
+            List<BookDto> books = Flux.range(0, concurrency)
+                    .flatMap(i -> bookService.getBookById((long) (i % CATALOGUE_SIZE) + 1), concurrency)
+                    .collectList()
+                    .block();
+
+            return new Result(books.size(), (System.nanoTime() - start) / 1_000_000,
+                    THREADS.getPeakThreadCount(), THREADS.getPeakThreadCount() - baseline);
+        } finally {
+            connectionProvider.dispose();
+        }
+    }
+
+    private BookServiceImpl newBookServiceImpl(RestTemplate restTemplate) {
+        return new BookServiceImpl(restTemplate, UPSTREAM_TIMERS,
+                upstream.getBaseUrl(),
+                upstream.getBaseUrl() + "/",
+                upstream.getBaseUrl() + "/title/",
+                upstream.getBaseUrl() + "/author/",
+                upstream.getBaseUrl() + "/",
+                upstream.getBaseUrl() + "/new",
+                upstream.getBaseUrl() + "/",
+                upstream.getBaseUrl() + "/");
+    }
+
+    private static void print(String mode, int concurrency, Result result) {
+        System.out.printf("%-10s %12d %12d %12d %12d%n", mode, concurrency, result.elapsedMs,
+                result.peakThreads, result.addedThreads);
+    }
+
+    private static class Result {
+        private final int completed;
+        private final long elapsedMs;
+        private final int peakThreads;
+        private final int addedThreads;
+
+        private Result(int completed, long elapsedMs, int peakThreads, int addedThreads) {
+            this.completed = completed;
+            this.elapsedMs = elapsedMs;
+            this.peakThreads = peakThreads;
+            this.addedThreads = addedThreads;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.kentcarmine.restapiconsumerpractice.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+// In-process stand-in for the backing books API. Responses are delayed on a scheduler rather than by sleeping,
+// so the stub itself holds no thread per in-flight request. Latency, a random 500 rate and padding added to every
+// book in a response (an extra field the proxy ignores) can be set to mimic a slower, flakier or wordier upstream.
+public class StubUpstreamServer implements AutoCloseable {
+
+    private static final String BASE_PATH = "/api/v1/books";
+
+    static {
+        // without TCP_NODELAY small responses stall on delayed ACKs and the stub, not the proxy, becomes the bottleneck
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, BookDto> books = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private final ExecutorService handlerExecutor = Executors.newFixedThreadPool(4);
+    private final HttpServer server;
+
+    private volatile long latencyMs;
+    private volatile double errorRate;
+    private volatile String padding;
+    private volatile boolean etags;
+    private volatile boolean gzip;
+    private final AtomicLong notModifiedCount = new AtomicLong();
+
+    public StubUpstreamServer(int catalogueSize) throws IOException {
+        for (int i = 0; i < catalogueSize; i++) {
+            long id = nextId.incrementAndGet();
+            books.put(id, new BookDto(id, "Title " + id, "Author " + (id % 100)));
+        }
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(handlerExecutor);
+        server.createContext(BASE_PATH, this::handle);
+        server.start();
+    }
+
+    public StubUpstreamServer withLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+        return this;
+    }
+
+    public StubUpstreamServer withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public StubUpstreamServer withPayloadPaddingBytes(int paddingBytes) {
+        this.padding = paddingBytes > 0 ? "x".repeat(paddingBytes) : null;
+        return this;
+    }
+
+    // GET responses carry an ETag, and a matching If-None-Match is answered with 304
+    public StubUpstreamServer withETags() {
+        this.etags = true;
+        return this;
+    }
+
+    // Response bodies are gzipped for requests that accept it
+    public StubUpstreamServer withGzip() {
+        this.gzip = true;
+        return this;
+    }
+
+    public String getRootUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return getRootUrl() + BASE_PATH;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        scheduler.shutdownNow();
+        handlerExecutor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        String path = exchange.getRequestURI().getPath().substring(BASE_PATH.length());
+        String method = exchange.getRequestMethod();
+
+        Response response;
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            response = new Response(500, null);
+        } else {
+            try {
+                response = route(method, path, exchange);
+            } catch (RuntimeException e) {
+                response = new Response(500, null);
+            }
+        }
+
+        Response toSend = response;
+        if (latencyMs > 0) {
+            scheduler.schedule(() -> send(exchange, toSend), latencyMs, TimeUnit.MILLISECONDS);
+        } else {
+            send(exchange, toSend);
+        }
+    }
+
+    private Response route(String method, String path, HttpExchange exchange) throws IOException {
+        if ("GET".equals(method) && (path.isEmpty() || "/".equals(path))) {
+            return new Response(200, new ArrayList<>(books.values()));
+        } else if ("GET".equals(method) && path.startsWith("/title/")) {
+            String title = path.substring("/title/".length());
+            return new Response(200, filter(book -> book.getTitle().equals(title)));
+        } else if ("GET".equals(method) && path.startsWith("/author/")) {
+            String author = path.substring("/author/".length());
+            return new Response(200, filter(book -> book.getAuthor().equals(author)));
+        } else if ("POST".equals(method) && "/new".equals(path)) {
+            CreateOrUpdateBookDto input = objectMapper.readValue(exchange.getRequestBody(), CreateOrUpdateBookDto.class);
+            long id = nextId.incrementAndGet();
+            BookDto created = new BookDto(id, input.getTitle(), input.getAuthor());
+            books.put(id, created);
+            return new Response(201, created);
+        }
+
+        Long id = parseId(path);
+        if (id == null) {
+            return new Response(404, null);
+        }
+
+        if ("GET".equals(method)) {
+            BookDto book = books.get(id);
+            return book == null ? new Response(404, null) : new Response(200, book);
+        } else if ("PUT".equals(method)) {
+            CreateOrUpdateBookDto input = objectMapper.readValue(exchange.getRequestBody(), CreateOrUpdateBookDto.class);
+            BookDto updated = new BookDto(id, input.getTitle(), input.getAuthor());
+            return books.replace(id, updated) == null ? new Response(404, null) : new Response(200, updated);
+        } else if ("DELETE".equals(method)) {
+            BookDto removed = books.remove(id);
+            return removed == null ? new Response(404, null) : new Response(200, removed);
+        }
+
+        return new Response(405, null);
+    }
+
+    private void send(HttpExchange exchange, Response response) {
+        try {
+            // error responses carry a small JSON body like the real API's, so the connection stays reusable
+            Object payload = response.body == null && response.status >= 400
+                    ? Map.of("status", response.status) : pad(response.body);
+            byte[] body = payload == null ? new byte[0] : objectMapper.writeValueAsBytes(payload);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if (etags && response.status == 200 && "GET".equals(exchange.getRequestMethod())) {
+                String etag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+                exchange.getResponseHeaders().set("ETag", etag);
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModifiedCount.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+            }
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (gzip && body.length > 0 && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                    out.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(response.status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } catch (IOException e) {
+            // client went away; nothing to report
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Object pad(Object body) {
+        String currentPadding = padding;
+        if (body == null || currentPadding == null) {
+            return body;
+        }
+        JsonNode tree = objectMapper.valueToTree(body);
+        if (tree.isObject()) {
+            ((ObjectNode) tree).put("description", currentPadding);
+        } else {
+            tree.forEach(node -> ((ObjectNode) node).put("description", currentPadding));
+        }
+        return tree;
+    }
+
+    private List<BookDto> filter(Predicate<BookDto> predicate) {
+        return books.values().stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    private static Long parseId(String path) {
+        try {
+            return Long.parseLong(path.substring(1));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static class Response {
+        private final int status;
+        private final Object body;
+
+        private Response(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.kentcarmine.restapiconsumerpractice.loadtest;
+
+import com.kentcarmine.restapiconsumerpractice.config.VirtualThreads;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Platform vs virtual thread Tomcat for GET /proxy/api/v1/books/{id} against a slow stub upstream.
+// The virtual thread half only runs on a Java 21+ JDK: JAVA_HOME=<jdk 21> mvn -Pload-test test -Dtest=VirtualThreadLoadTest
+// Tomcat 9 processes each request inside a monitor on its socket, so a virtual thread pins its carrier for the whole
+// request (see -Djdk.tracePinnedThreads=short); on few cores the virtual half is bounded by the carrier count.
+@Tag("load")
+class VirtualThreadLoadTest {
+
+    private static final int CATALOGUE_SIZE = 1000;
+    private static final long UPSTREAM_LATENCY_MS = 100;
+    private static final int CONCURRENCY = 800;
+
+    static StubUpstreamServer upstream;
+
+    @BeforeAll
+    static void startUpstream() throws Exception {
+        upstream = new StubUpstreamServer(CATALOGUE_SIZE).withLatencyMs(UPSTREAM_LATENCY_MS);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @Test
+    void platformVsVirtualThreads() throws Exception {
+        LoadResult platform = run(false);
+        System.out.println("platform threads: " + platform);
+        assertTrue(platform.getRequests() > 0);
+
+        if (!VirtualThreads.isSupported()) {
+            System.out.println("virtual threads: skipped, requires Java 21+ (running " +
+                    System.getProperty("java.version") + ")");
+            return;
+        }
+
+        LoadResult virtual = run(true);
+        System.out.println("virtual threads:  " + virtual);
+        assertTrue(virtual.getRequests() > 0);
+    }
+
+    private LoadResult run(boolean virtualThreads) throws InterruptedException {
+        // caching, coalescing and the stale store would hide the upstream wait this benchmark is measuring, and the
+        // inbound limit and slow-call circuit would shed the concurrency it is comparing
+        ConfigurableApplicationContext proxy = ProxyLauncher.start(upstream,
+                "restapipractice.virtual_threads.enabled=" + virtualThreads,
+                "restapipractice.cache.enabled=false",
+                "restapipractice.coalescing.enabled=false",
+                "restapipractice.stale.enabled=false",
+                "restapipractice.concurrency_limit.enabled=false",
+                "restapipractice.resilience.enabled=false");
+        try {
+            String baseUrl = ProxyLauncher.baseUrl(proxy);
+            LoadDriver driver = new LoadDriver(CONCURRENCY, Duration.ofSeconds(3), Duration.ofSeconds(10));
+            return driver.run(sequence -> HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + "/" + ((sequence % CATALOGUE_SIZE) + 1)))
+                    .GET()
+                    .build());
+        } finally {
+            proxy.close();
+        }
+    }
+}
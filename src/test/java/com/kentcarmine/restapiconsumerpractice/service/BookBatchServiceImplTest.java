@@ -0,0 +1,85 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookBatchItemDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.exception.InvalidBookInputException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookBatchServiceImplTest {
+
+    @Mock
+    BookService bookService;
+
+    ExecutorService executor;
+
+    BookBatchServiceImpl bookBatchService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        bookBatchService = new BookBatchServiceImpl(bookService, executor, 10, 2, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getBooksByIds_deduplicatesAndReportsPerId() {
+        when(bookService.getBookById(1L)).thenReturn(new BookDto(1L, "Title 1", "Author 1"));
+        when(bookService.getBookById(2L)).thenThrow(new BookNotFoundException(2L));
+        when(bookService.getBookById(3L)).thenThrow(new RuntimeException("upstream failed"));
+
+        List<BookBatchItemDto> results = bookBatchService.getBooksByIds(List.of(1L, 2L, 1L, 3L));
+
+        assertEquals(3, results.size());
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals("Title 1", results.get(0).getBook().getTitle());
+        assertEquals(404, results.get(1).getStatus());
+        assertEquals(500, results.get(2).getStatus());
+        verify(bookService, times(1)).getBookById(1L);
+    }
+
+    @Test
+    void getBooksByIds_boundsConcurrency() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(bookService.getBookById(anyLong())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return new BookDto(invocation.getArgument(0), "Title", "Author");
+        });
+
+        List<BookBatchItemDto> results = bookBatchService.getBooksByIds(List.of(1L, 2L, 3L, 4L, 5L, 6L));
+
+        assertEquals(6, results.size());
+        assertTrue(maxInFlight.get() <= 2);
+    }
+
+    @Test
+    void getBooksByIds_invalidInput() {
+        assertThrows(InvalidBookInputException.class, () -> bookBatchService.getBooksByIds(List.of()));
+        assertThrows(InvalidBookInputException.class,
+                () -> bookBatchService.getBooksByIds(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L)));
+
+        verify(bookService, times(0)).getBookById(anyLong());
+    }
+}
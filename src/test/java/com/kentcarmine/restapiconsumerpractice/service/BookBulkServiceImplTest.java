@@ -0,0 +1,99 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookBulkOperationDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookBulkOperationType;
+import com.kentcarmine.restapiconsumerpractice.dto.BookBulkResultDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.exception.InvalidBookInputException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookBulkServiceImplTest {
+
+    @Mock
+    BookService bookService;
+
+    ExecutorService executor;
+
+    BookBulkServiceImpl bookBulkService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        bookBulkService = new BookBulkServiceImpl(bookService, executor, 5, 4, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_reportsPerOperationInRequestOrder() {
+        CreateOrUpdateBookDto newBook = new CreateOrUpdateBookDto("Title 1", "Author 1");
+        CreateOrUpdateBookDto changedBook = new CreateOrUpdateBookDto("Title 2", "Author 2");
+        when(bookService.createNewBook(newBook)).thenReturn(new BookDto(10L, "Title 1", "Author 1"));
+        when(bookService.updateBookWithId(2L, changedBook)).thenReturn(new BookDto(2L, "Title 2", "Author 2"));
+        when(bookService.deleteBookById(3L)).thenThrow(new BookNotFoundException(3L));
+
+        List<BookBulkResultDto> results = bookBulkService.execute(List.of(
+                new BookBulkOperationDto(BookBulkOperationType.CREATE, null, newBook),
+                new BookBulkOperationDto(BookBulkOperationType.UPDATE, 2L, changedBook),
+                new BookBulkOperationDto(BookBulkOperationType.DELETE, 3L, null)));
+
+        assertEquals(3, results.size());
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(10L, results.get(0).getId());
+        assertEquals(200, results.get(1).getStatus());
+        assertEquals("Title 2", results.get(1).getBook().getTitle());
+        assertEquals(404, results.get(2).getStatus());
+        assertEquals(2, results.get(2).getIndex());
+    }
+
+    @Test
+    void execute_keepsOrderForSameId() {
+        CreateOrUpdateBookDto changedBook = new CreateOrUpdateBookDto("Title", "Author");
+        when(bookService.updateBookWithId(1L, changedBook)).thenReturn(new BookDto(1L, "Title", "Author"));
+        when(bookService.deleteBookById(1L)).thenReturn(new BookDto(1L, "Title", "Author"));
+
+        List<BookBulkResultDto> results = bookBulkService.execute(List.of(
+                new BookBulkOperationDto(BookBulkOperationType.UPDATE, 1L, changedBook),
+                new BookBulkOperationDto(BookBulkOperationType.DELETE, 1L, null)));
+
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(200, results.get(1).getStatus());
+        InOrder inOrder = inOrder(bookService);
+        inOrder.verify(bookService).updateBookWithId(1L, changedBook);
+        inOrder.verify(bookService).deleteBookById(1L);
+    }
+
+    @Test
+    void execute_invalidInput() {
+        List<BookBulkOperationDto> tooMany = new ArrayList<>();
+        for (long i = 1; i <= 6; i++) {
+            tooMany.add(new BookBulkOperationDto(BookBulkOperationType.DELETE, i, null));
+        }
+
+        assertThrows(InvalidBookInputException.class, () -> bookBulkService.execute(List.of()));
+        assertThrows(InvalidBookInputException.class, () -> bookBulkService.execute(tooMany));
+
+        verify(bookService, times(0)).deleteBookById(any());
+    }
+}
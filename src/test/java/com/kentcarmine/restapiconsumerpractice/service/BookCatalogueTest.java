@@ -0,0 +1,92 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookSearchMode;
+import com.kentcarmine.restapiconsumerpractice.exception.InvalidBookInputException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookCatalogueTest {
+
+    @Mock
+    BookServiceImpl bookServiceImpl;
+
+    BookCatalogue bookCatalogue;
+
+    @BeforeEach
+    void setUp() {
+        bookCatalogue = new BookCatalogue(bookServiceImpl);
+    }
+
+    @Test
+    void search_loadsOnFirstUseAndMatchesEachMode() {
+        upstreamReturns(List.of(
+                new BookDto(1L, "Dune", "Frank Herbert"),
+                new BookDto(2L, "Dune Messiah", "Frank Herbert"),
+                new BookDto(3L, "The Left Hand of Darkness", "Ursula K. Le Guin")));
+
+        assertFalse(bookCatalogue.isLoaded());
+        assertEquals(Set.of(1L), ids(bookCatalogue.search("Dune", null, BookSearchMode.EXACT)));
+        assertTrue(bookCatalogue.isLoaded());
+
+        assertEquals(Set.of(), ids(bookCatalogue.search("dune", null, BookSearchMode.EXACT)));
+        assertEquals(Set.of(1L), ids(bookCatalogue.search("dune", null, BookSearchMode.IGNORE_CASE)));
+        assertEquals(Set.of(1L, 2L), ids(bookCatalogue.search("du", null, BookSearchMode.PREFIX)));
+        assertEquals(Set.of(3L), ids(bookCatalogue.search("darkness left", null, BookSearchMode.TOKEN)));
+        assertEquals(Set.of(2L), ids(bookCatalogue.search("messiah", "herbert", BookSearchMode.TOKEN)));
+        verify(bookServiceImpl, times(1)).streamAllBooks(any());
+    }
+
+    @Test
+    void refresh_appliesChangesButKeepsLocalWrites() {
+        upstreamReturns(List.of(new BookDto(1L, "Dune", "Frank Herbert"), new BookDto(2L, "Emma", "Jane Austen")));
+        bookCatalogue.refresh();
+
+        // The upstream drops book 2 and renames book 1, while this proxy writes book 3 mid-refresh
+        doAnswer(invocation -> {
+            bookCatalogue.put(new BookDto(3L, "Persuasion", "Jane Austen"));
+            Consumer<BookDto> consumer = invocation.getArgument(0);
+            consumer.accept(new BookDto(1L, "Dune (Revised)", "Frank Herbert"));
+            return null;
+        }).when(bookServiceImpl).streamAllBooks(any());
+        bookCatalogue.refresh();
+
+        assertEquals(2, bookCatalogue.size());
+        assertNull(bookCatalogue.get(2L));
+        assertEquals("Dune (Revised)", bookCatalogue.get(1L).getTitle());
+        assertEquals(Set.of(), ids(bookCatalogue.findByTitle("Dune", BookSearchMode.EXACT)));
+        assertEquals(Set.of(3L), ids(bookCatalogue.findByAuthor("jane austen", BookSearchMode.IGNORE_CASE)));
+    }
+
+    @Test
+    void search_requiresTitleOrAuthor() {
+        assertThrows(InvalidBookInputException.class, () -> bookCatalogue.search(null, " ", BookSearchMode.TOKEN));
+
+        verify(bookServiceImpl, times(0)).streamAllBooks(any());
+    }
+
+    private void upstreamReturns(List<BookDto> books) {
+        doAnswer(invocation -> {
+            Consumer<BookDto> consumer = invocation.getArgument(0);
+            books.forEach(consumer);
+            return null;
+        }).when(bookServiceImpl).streamAllBooks(any());
+    }
+
+    private static Set<Long> ids(Set<BookDto> books) {
+        return books.stream().map(BookDto::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,80 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.BookPageDto;
+import com.kentcarmine.restapiconsumerpractice.exception.InvalidPageRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookPageServiceImplTest {
+
+    @Mock
+    BookService bookService;
+
+    BookPageServiceImpl bookPageService;
+
+    Set<BookDto> bookDtoSet;
+
+    @BeforeEach
+    void setUp() {
+        bookPageService = new BookPageServiceImpl(bookService, 100, 60000, 100);
+        bookDtoSet = new HashSet<>();
+        for (long id = 5; id >= 1; id--) {
+            bookDtoSet.add(new BookDto(id, "Title " + id, "Author " + id));
+        }
+    }
+
+    @Test
+    void getAllBooks_pagesAreSortedById() {
+        when(bookService.getAllBooks()).thenReturn(bookDtoSet);
+
+        BookPageDto first = bookPageService.getAllBooks(0, 2, null);
+        BookPageDto last = bookPageService.getAllBooks(2, 2, null);
+
+        assertEquals(1L, first.getContent().get(0).getId());
+        assertEquals(2L, first.getContent().get(1).getId());
+        assertEquals(5, first.getTotalElements());
+        assertNotNull(first.getNextCursor());
+        assertEquals(1, last.getContent().size());
+        assertNull(last.getNextCursor());
+
+        verify(bookService, times(1)).getAllBooks();
+    }
+
+    @Test
+    void getAllBooks_cursorWalksWholeListing() {
+        when(bookService.getAllBooks()).thenReturn(bookDtoSet);
+
+        int seen = 0;
+        String cursor = null;
+        do {
+            BookPageDto page = cursor == null
+                    ? bookPageService.getAllBooks(null, 2, null)
+                    : bookPageService.getAllBooks(null, 2, cursor);
+            seen += page.getContent().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(5, seen);
+    }
+
+    @Test
+    void getAllBooks_invalidRequests() {
+        assertThrows(InvalidPageRequestException.class, () -> bookPageService.getAllBooks(0, 0, null));
+        assertThrows(InvalidPageRequestException.class, () -> bookPageService.getAllBooks(0, 101, null));
+        assertThrows(InvalidPageRequestException.class, () -> bookPageService.getAllBooks(-1, 2, null));
+        assertThrows(InvalidPageRequestException.class, () -> bookPageService.getAllBooks(null, 2, "not-a-cursor"));
+
+        verify(bookService, times(0)).getAllBooks();
+    }
+}
@@ -0,0 +1,104 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.loadtest.StubUpstreamServer;
+import com.kentcarmine.restapiconsumerpractice.service.support.UpstreamTimers;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookServiceImplTest {
+
+    StubUpstreamServer upstream;
+
+    SimpleMeterRegistry meterRegistry;
+
+    BookServiceImpl bookService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstream = new StubUpstreamServer(10);
+        meterRegistry = new SimpleMeterRegistry();
+        String baseUrl = upstream.getBaseUrl();
+        bookService = new BookServiceImpl(new RestTemplate(), new UpstreamTimers(meterRegistry), baseUrl,
+                baseUrl + "/", baseUrl + "/title/", baseUrl + "/author/", baseUrl + "/", baseUrl + "/new",
+                baseUrl + "/", baseUrl + "/");
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstream.close();
+    }
+
+    @Test
+    void getBookById_found() {
+        BookDto book = bookService.getBookById(3L);
+
+        assertEquals(3L, book.getId());
+        assertEquals(1, timerCount("200"));
+    }
+
+    @Test
+    void getBookById_upstream404_isBookNotFoundWithoutStackTrace() {
+        BookNotFoundException e = assertThrows(BookNotFoundException.class, () -> bookService.getBookById(999L));
+
+        assertEquals(999L, e.getNotFoundId());
+        assertEquals("Book with id = 999 was not found", e.getMessage());
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals(1, timerCount("404"));
+    }
+
+    @Test
+    void getBookById_upstream500_isLeftToErrorHandler() {
+        upstream.withErrorRate(1.0);
+
+        assertThrows(HttpServerErrorException.class, () -> bookService.getBookById(3L));
+        assertEquals(1, timerCount("500"));
+    }
+
+    @Test
+    void streamAllBooks_timesUpstreamOnlyToResponseHeaders() {
+        int[] books = new int[1];
+        long start = System.nanoTime();
+        bookService.streamAllBooks(book -> {
+            if (books[0]++ == 0) {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        double elapsedMillis = (System.nanoTime() - start) / 1e6;
+
+        assertEquals(10, books[0]);
+        Timer timer = meterRegistry.get(UpstreamTimers.METRIC_NAME)
+                .tag("operation", UpstreamOperation.FIND_ALL.getTagValue()).tag("status", "200").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) <= elapsedMillis - 500);
+    }
+
+    @Test
+    void streamAllBooks_upstream500_isTimedOnce() {
+        upstream.withErrorRate(1.0);
+
+        assertThrows(HttpServerErrorException.class, () -> bookService.streamAllBooks(book -> { }));
+        assertEquals(1, meterRegistry.get(UpstreamTimers.METRIC_NAME)
+                .tag("operation", UpstreamOperation.FIND_ALL.getTagValue()).tag("status", "500").timer().count());
+    }
+
+    private long timerCount(String status) {
+        return meterRegistry.get(UpstreamTimers.METRIC_NAME).tag("operation", UpstreamOperation.FIND_BY_ID.getTagValue())
+                .tag("status", status).timer().count();
+    }
+}
@@ -0,0 +1,130 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.service.support.BookSnapshotFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookSnapshotsTest {
+
+    @Mock
+    BookService delegate;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void servedBooks_surviveRestart() {
+        Path path = dir.resolve("books.snapshot");
+        BookSnapshots snapshots = snapshots(path, 60000);
+        BookService bookService = new SnapshottingBookService(delegate, snapshots);
+        when(delegate.getAllBooks()).thenReturn(Set.of(new BookDto(1L, "Title 1", "Author 1"),
+                new BookDto(2L, "Title 2", "Author 2")));
+        when(delegate.getBookById(2L)).thenThrow(new BookNotFoundException(2L));
+
+        bookService.getAllBooks();
+        assertThrows(BookNotFoundException.class, () -> bookService.getBookById(2L));
+        snapshots.persistOnShutdown();
+
+        BookSnapshotFile.Snapshot restored = snapshots(path, 60000).restore();
+        assertEquals(1, restored.getBooks().size());
+        assertEquals(1L, restored.getBooks().get(0).getId());
+        // a full listing less the book found missing since is still every book
+        assertTrue(restored.isComplete());
+    }
+
+    @Test
+    void persist_unchangedBooks_areNotRewritten() throws Exception {
+        Path path = dir.resolve("books.snapshot");
+        BookSnapshots snapshots = snapshots(path, 60000);
+        snapshots.record(new BookDto(1L, "Title 1", "Author 1"));
+        snapshots.persist();
+        Files.delete(path);
+
+        snapshots.persist();
+        assertFalse(Files.exists(path));
+
+        snapshots.record(new BookDto(1L, "Title 1", "Another Author"));
+        snapshots.persist();
+        assertTrue(Files.exists(path));
+    }
+
+    @Test
+    void restore_ignoresOldAndCorruptSnapshots() throws Exception {
+        Path path = dir.resolve("books.snapshot");
+        new BookSnapshotFile(path).write(List.of(new BookDto(1L, "Title 1", "Author 1")),
+                System.currentTimeMillis() - 120000, false);
+        assertNull(snapshots(path, 60000).restore());
+
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        assertNull(snapshots(path, 60000).restore());
+    }
+
+    @Test
+    void restoreThenPersist_keepsEachBooksFetchTime() throws Exception {
+        Path path = dir.resolve("books.snapshot");
+        long now = System.currentTimeMillis();
+        new BookSnapshotFile(path).write(List.of(
+                new BookSnapshotFile.Entry(new BookDto(1L, "Title 1", "Author 1"), now - 50000),
+                new BookSnapshotFile.Entry(new BookDto(2L, "Title 2", "Author 2"), now - 90000)), now - 1000, false);
+
+        BookSnapshots snapshots = snapshots(path, 60000);
+        assertEquals(1, snapshots.restore().getEntries().size());
+        snapshots.record(new BookDto(3L, "Title 3", "Author 3"));
+        snapshots.persist();
+
+        Map<Long, Long> fetchedAt = new HashMap<>();
+        new BookSnapshotFile(path).read().getEntries()
+                .forEach(entry -> fetchedAt.put(entry.getBook().getId(), entry.getFetchedAtMillis()));
+        assertEquals(Set.of(1L, 3L), fetchedAt.keySet());
+        assertEquals(now - 50000, fetchedAt.get(1L));
+        assertTrue(fetchedAt.get(3L) >= now);
+    }
+
+    @Test
+    void fullListing_isCompleteUntilBooksAreDropped() throws Exception {
+        Path path = dir.resolve("books.snapshot");
+        BookSnapshots snapshots = snapshots(path, 60000, 2);
+        snapshots.record(new BookDto(9L, "Deleted", "Author 9"));
+        snapshots.recordListing(List.of(new BookDto(1L, "Title 1", "Author 1"), new BookDto(2L, "Title 2", "Author 2")));
+        snapshots.persist();
+
+        BookSnapshotFile.Snapshot snapshot = new BookSnapshotFile(path).read();
+        assertTrue(snapshot.isComplete());
+        assertEquals(2, snapshot.getEntries().size());
+
+        snapshots.forget(2L);
+        snapshots.record(new BookDto(3L, "Title 3", "Author 3"));
+        snapshots.record(new BookDto(4L, "Title 4", "Author 4"));
+        snapshots.persist();
+
+        snapshot = new BookSnapshotFile(path).read();
+        assertFalse(snapshot.isComplete());
+        assertEquals(2, snapshot.getEntries().size());
+    }
+
+    private static BookSnapshots snapshots(Path path, long maxAgeMs) {
+        return snapshots(path, maxAgeMs, 100000);
+    }
+
+    private static BookSnapshots snapshots(Path path, long maxAgeMs, int maxBooks) {
+        return new BookSnapshots(path.toString(), maxAgeMs, maxBooks,
+                new DefaultListableBeanFactory().getBeanProvider(BookCatalogue.class));
+    }
+}
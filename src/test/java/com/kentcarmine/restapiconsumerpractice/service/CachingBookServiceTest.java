@@ -0,0 +1,113 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingBookServiceTest {
+
+    @Mock
+    BookService delegate;
+
+    CachingBookService cachingBookService;
+
+    BookDto bookDto1;
+
+    @BeforeEach
+    void setUp() {
+        cachingBookService = new CachingBookService(delegate, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        bookDto1 = new BookDto(1L, "Title 1", "Author 1");
+    }
+
+    @Test
+    void getBookById_cachesHit() {
+        when(delegate.getBookById(1L)).thenReturn(bookDto1);
+
+        assertSame(bookDto1, cachingBookService.getBookById(1L));
+        assertSame(bookDto1, cachingBookService.getBookById(1L));
+
+        verify(delegate, times(1)).getBookById(anyLong());
+        assertEquals(1, cachingBookService.getBookCache().stats().hitCount());
+    }
+
+    @Test
+    void getBookById_cachesNotFound() {
+        when(delegate.getBookById(1L)).thenThrow(new BookNotFoundException(1L));
+
+        assertThrows(BookNotFoundException.class, () -> cachingBookService.getBookById(1L));
+        assertThrows(BookNotFoundException.class, () -> cachingBookService.getBookById(1L));
+
+        verify(delegate, times(1)).getBookById(anyLong());
+    }
+
+    @Test
+    void updateBookWithId_invalidatesCachedBook() {
+        when(delegate.getBookById(1L)).thenReturn(bookDto1);
+        cachingBookService.getBookById(1L);
+
+        cachingBookService.updateBookWithId(1L, new CreateOrUpdateBookDto("Title 2", "Author 2"));
+        cachingBookService.getBookById(1L);
+
+        verify(delegate, times(2)).getBookById(anyLong());
+        verify(delegate, times(1)).updateBookWithId(anyLong(), any());
+    }
+
+    @Test
+    void deleteBookById_invalidatesEvenOnFailure() {
+        when(delegate.getBookById(1L)).thenReturn(bookDto1);
+        when(delegate.deleteBookById(1L)).thenThrow(new RuntimeException());
+        cachingBookService.getBookById(1L);
+
+        assertThrows(RuntimeException.class, () -> cachingBookService.deleteBookById(1L));
+        cachingBookService.getBookById(1L);
+
+        verify(delegate, times(2)).getBookById(anyLong());
+    }
+
+    @Test
+    void updateBookWithId_discardsReadAlreadyInFlight() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BookDto updated = new BookDto(1L, "Title 2", "Author 2");
+        when(delegate.getBookById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return bookDto1;
+        }).thenReturn(updated);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<BookDto> read = executor.submit(() -> cachingBookService.getBookById(1L));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<BookDto> update = executor.submit(() ->
+                    cachingBookService.updateBookWithId(1L, new CreateOrUpdateBookDto("Title 2", "Author 2")));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertSame(bookDto1, read.get(5, TimeUnit.SECONDS));
+            update.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertSame(updated, cachingBookService.getBookById(1L));
+    }
+}
@@ -0,0 +1,109 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.service.support.LatencyWindow;
+import com.kentcarmine.restapiconsumerpractice.service.support.RetryBudget;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HedgingBookServiceTest {
+
+    @Mock
+    BookService bookService;
+
+    ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getBookById_hedgeAnswersWhenFirstReadIsSlow() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(bookService.getBookById(1L))
+                .thenAnswer(invocation -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return new BookDto(1L, "Slow", "Author");
+                })
+                .thenReturn(new BookDto(1L, "Fast", "Author"));
+        HedgingBookService hedgingBookService = hedging(new RetryBudget(0.05, 10));
+
+        assertEquals("Fast", hedgingBookService.getBookById(1L).getTitle());
+
+        verify(bookService, times(2)).getBookById(1L);
+        assertEquals(1, hedgingBookService.getHedgeCount());
+        assertEquals(1, hedgingBookService.getHedgeWinCount());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "slow read was not cancelled");
+    }
+
+    @Test
+    void getBookById_noHedgeWhenFirstReadIsFast() {
+        when(bookService.getBookById(1L)).thenReturn(new BookDto(1L, "Title", "Author"));
+        when(bookService.getBookById(2L)).thenThrow(new BookNotFoundException(2L));
+        HedgingBookService hedgingBookService = hedging(new RetryBudget(0.05, 10));
+
+        assertEquals(1L, hedgingBookService.getBookById(1L).getId());
+        assertThrows(BookNotFoundException.class, () -> hedgingBookService.getBookById(2L));
+
+        verify(bookService, times(1)).getBookById(1L);
+        verify(bookService, times(1)).getBookById(2L);
+        assertEquals(0, hedgingBookService.getHedgeCount());
+    }
+
+    @Test
+    void getBookById_noHedgeWhenBudgetIsSpent() {
+        when(bookService.getBookById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return new BookDto(1L, "Title", "Author");
+        });
+        HedgingBookService hedgingBookService = hedging(new RetryBudget(0.05, 1));
+
+        hedgingBookService.getBookById(1L);
+        hedgingBookService.getBookById(1L);
+
+        // Only the first call could pay for a hedge
+        verify(bookService, times(3)).getBookById(1L);
+        assertEquals(1, hedgingBookService.getHedgeCount());
+    }
+
+    @Test
+    void getBookById_hedgeAnswersWhenFirstReadFailsLate() {
+        when(bookService.getBookById(1L))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(50);
+                    throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+                })
+                .thenAnswer(invocation -> {
+                    Thread.sleep(200);
+                    return new BookDto(1L, "Title", "Author");
+                });
+        HedgingBookService hedgingBookService = hedging(new RetryBudget(0.05, 10));
+
+        assertEquals(1L, hedgingBookService.getBookById(1L).getId());
+        assertEquals(1, hedgingBookService.getHedgeWinCount());
+    }
+
+    private HedgingBookService hedging(RetryBudget hedgeBudget) {
+        return new HedgingBookService(bookService, executor, 20, new LatencyWindow(16, 0.95, 4), hedgeBudget);
+    }
+}
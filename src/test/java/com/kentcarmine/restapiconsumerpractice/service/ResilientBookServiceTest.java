@@ -0,0 +1,139 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.exception.UpstreamUnavailableException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientBookServiceTest {
+
+    @Mock
+    BookService bookService;
+
+    ResilientBookService resilientBookService;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .recordException(ResilientBookService::isUpstreamFailure)
+                .ignoreExceptions(BulkheadFullException.class)
+                .build());
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        resilientBookService = new ResilientBookService(bookService, circuitBreakerRegistry, bulkheadRegistry);
+    }
+
+    @Test
+    void getBookById_opensAfterUpstreamFailures() {
+        when(bookService.getBookById(anyLong())).thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> resilientBookService.getBookById(1L));
+        }
+        assertThrows(UpstreamUnavailableException.class, () -> resilientBookService.getBookById(1L));
+
+        verify(bookService, times(4)).getBookById(anyLong());
+        // other operations have their own circuit
+        resilientBookService.getAllBooks();
+        verify(bookService, times(1)).getAllBooks();
+    }
+
+    @Test
+    void getBookById_notFoundDoesNotOpen() {
+        when(bookService.getBookById(anyLong())).thenThrow(new BookNotFoundException(1L));
+
+        for (int i = 0; i < 6; i++) {
+            assertThrows(BookNotFoundException.class, () -> resilientBookService.getBookById(1L));
+        }
+
+        verify(bookService, times(6)).getBookById(anyLong());
+    }
+
+    @Test
+    void getBookById_rejectsWhenBulkheadFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookService.getBookById(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new BookDto(1L, "Title", "Author");
+        });
+
+        CompletableFuture<BookDto> first = CompletableFuture.supplyAsync(() -> resilientBookService.getBookById(1L));
+        started.await();
+        assertThrows(UpstreamUnavailableException.class, () -> resilientBookService.getBookById(2L));
+        release.countDown();
+
+        assertEquals(1L, first.get().getId());
+        verify(bookService, times(0)).getBookById(2L);
+    }
+
+    @Test
+    void streamAllBooks_slowClientReleasesBulkheadAfterFirstBook() throws Exception {
+        CountDownLatch streaming = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            Consumer<BookDto> consumer = invocation.getArgument(0);
+            consumer.accept(new BookDto(1L, "Title 1", "Author 1"));
+            consumer.accept(new BookDto(2L, "Title 2", "Author 2"));
+            return null;
+        }).when(bookService).streamAllBooks(any());
+
+        CompletableFuture<Void> stream = CompletableFuture.runAsync(() -> resilientBookService.streamAllBooks(book -> {
+            streaming.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        streaming.await();
+
+        // the client is still reading, but the upstream part is done
+        resilientBookService.getAllBooks();
+        release.countDown();
+        stream.get();
+
+        verify(bookService, times(1)).getAllBooks();
+    }
+
+    @Test
+    void streamAllBooks_failureBeforeFirstBookCountsAgainstCircuit() {
+        doThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY)).when(bookService).streamAllBooks(any());
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> resilientBookService.streamAllBooks(book -> {
+            }));
+        }
+
+        assertThrows(UpstreamUnavailableException.class, () -> resilientBookService.getAllBooks());
+    }
+}
@@ -0,0 +1,126 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.exception.UpstreamUnavailableException;
+import com.kentcarmine.restapiconsumerpractice.service.support.RetryBudget;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetryingBookServiceTest {
+
+    @Mock
+    BookService bookService;
+
+    @Test
+    void getBookById_retriesTransientFailures() {
+        RetryingBookService retryingBookService = retrying(false, new RetryBudget(0.1, 10));
+        when(bookService.getBookById(1L))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+                .thenThrow(new ResourceAccessException("Read timed out"))
+                .thenReturn(new BookDto(1L, "Title", "Author"));
+
+        assertEquals(1L, retryingBookService.getBookById(1L).getId());
+
+        verify(bookService, times(3)).getBookById(1L);
+        assertEquals(2, retryingBookService.getRetryCount());
+        assertEquals(1, retryingBookService.getRecoveredCount());
+    }
+
+    @Test
+    void getBookById_givesUpAfterMaxAttempts() {
+        RetryingBookService retryingBookService = retrying(false, new RetryBudget(0.1, 10));
+        when(bookService.getBookById(1L)).thenThrow(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+
+        assertThrows(HttpClientErrorException.class, () -> retryingBookService.getBookById(1L));
+
+        verify(bookService, times(3)).getBookById(1L);
+        assertEquals(0, retryingBookService.getRecoveredCount());
+    }
+
+    @Test
+    void getBookById_doesNotRetryPermanentFailures() {
+        RetryingBookService retryingBookService = retrying(false, new RetryBudget(0.1, 10));
+        when(bookService.getBookById(1L)).thenThrow(new BookNotFoundException(1L));
+        when(bookService.getBookById(2L)).thenThrow(new UpstreamUnavailableException());
+
+        assertThrows(BookNotFoundException.class, () -> retryingBookService.getBookById(1L));
+        assertThrows(UpstreamUnavailableException.class, () -> retryingBookService.getBookById(2L));
+
+        verify(bookService, times(1)).getBookById(1L);
+        verify(bookService, times(1)).getBookById(2L);
+        assertEquals(0, retryingBookService.getRetryCount());
+    }
+
+    @Test
+    void getBookById_stopsRetryingWhenBudgetIsSpent() {
+        RetryingBookService retryingBookService = retrying(false, new RetryBudget(0.1, 2));
+        when(bookService.getBookById(anyLong())).thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+
+        for (long id = 1; id <= 3; id++) {
+            long bookId = id;
+            assertThrows(HttpServerErrorException.class, () -> retryingBookService.getBookById(bookId));
+        }
+
+        // The two starting tokens pay for the first request's retries; later deposits are too small to buy another
+        verify(bookService, times(5)).getBookById(anyLong());
+        assertEquals(2, retryingBookService.getRetryCount());
+        assertEquals(2, retryingBookService.getBudgetExhaustedCount());
+    }
+
+    @Test
+    void writes_onlyRetriedWhenEnabled() {
+        CreateOrUpdateBookDto update = new CreateOrUpdateBookDto("Title", "Author");
+        when(bookService.updateBookWithId(anyLong(), any()))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+        when(bookService.createNewBook(any()))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        RetryingBookService readsOnly = retrying(false, new RetryBudget(0.1, 10));
+        assertThrows(HttpServerErrorException.class, () -> readsOnly.updateBookWithId(1L, update));
+        verify(bookService, times(1)).updateBookWithId(anyLong(), any());
+
+        RetryingBookService withWrites = retrying(true, new RetryBudget(0.1, 10));
+        assertThrows(HttpServerErrorException.class, () -> withWrites.updateBookWithId(1L, update));
+        assertThrows(HttpServerErrorException.class, () -> withWrites.createNewBook(update));
+        verify(bookService, times(4)).updateBookWithId(anyLong(), any());
+        verify(bookService, times(1)).createNewBook(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAllBooks_notRetriedOnceBooksWereDelivered() {
+        RetryingBookService retryingBookService = retrying(false, new RetryBudget(0.1, 10));
+        doAnswer(invocation -> {
+            ((Consumer<BookDto>) invocation.getArgument(0)).accept(new BookDto(1L, "Title", "Author"));
+            throw new ResourceAccessException("Connection reset");
+        }).when(bookService).streamAllBooks(any());
+
+        List<BookDto> received = new ArrayList<>();
+        assertThrows(ResourceAccessException.class, () -> retryingBookService.streamAllBooks(received::add));
+
+        assertEquals(1, received.size());
+        verify(bookService, times(1)).streamAllBooks(any());
+    }
+
+    private RetryingBookService retrying(boolean retryWrites, RetryBudget retryBudget) {
+        return new RetryingBookService(bookService, 3, 1, 5, retryWrites, retryBudget);
+    }
+}
@@ -0,0 +1,200 @@
+package com.kentcarmine.restapiconsumerpractice.service;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.dto.CreateOrUpdateBookDto;
+import com.kentcarmine.restapiconsumerpractice.exception.BookNotFoundException;
+import com.kentcarmine.restapiconsumerpractice.exception.UpstreamUnavailableException;
+import com.kentcarmine.restapiconsumerpractice.service.support.BookSnapshotFile;
+import com.kentcarmine.restapiconsumerpractice.service.support.Staleness;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StaleOnErrorBookServiceTest {
+
+    @Mock
+    BookService delegate;
+
+    @Mock
+    BookService revalidator;
+
+    ExecutorService refreshExecutor;
+
+    BookDto bookDto1;
+
+    @BeforeEach
+    void setUp() {
+        refreshExecutor = Executors.newSingleThreadExecutor();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        bookDto1 = new BookDto(1L, "Title 1", "Author 1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshExecutor.shutdownNow();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void getBookById_upstreamFails_servesLastKnownGood() {
+        StaleOnErrorBookService service = new StaleOnErrorBookService(delegate, refreshExecutor, 100, 0, 0, 60000);
+        when(delegate.getBookById(1L)).thenReturn(bookDto1)
+                .thenThrow(new UpstreamUnavailableException("down"));
+
+        assertSame(bookDto1, service.getBookById(1L));
+        assertNull(Staleness.current());
+
+        assertSame(bookDto1, service.getBookById(1L));
+        assertTrue(Staleness.current().isRevalidationFailed());
+        assertEquals(1, service.getServedOnErrorCount());
+    }
+
+    @Test
+    void getAllBooks_upstreamFailsPastAgeLimit_rethrows() throws Exception {
+        StaleOnErrorBookService service = new StaleOnErrorBookService(delegate, refreshExecutor, 100, 0, 0, 1);
+        when(delegate.getAllBooks()).thenReturn(Set.of(bookDto1))
+                .thenThrow(new UpstreamUnavailableException("down"));
+
+        service.getAllBooks();
+        Thread.sleep(10);
+
+        assertThrows(UpstreamUnavailableException.class, service::getAllBooks);
+        assertNull(Staleness.current());
+    }
+
+    @Test
+    void getBookById_notFound_isNotMaskedAndDropsStoredBook() {
+        StaleOnErrorBookService service = new StaleOnErrorBookService(delegate, refreshExecutor, 100, 0, 0, 60000);
+        when(delegate.getBookById(1L)).thenReturn(bookDto1)
+                .thenThrow(new BookNotFoundException(1L))
+                .thenThrow(new UpstreamUnavailableException("down"));
+
+        service.getBookById(1L);
+
+        assertThrows(BookNotFoundException.class, () -> service.getBookById(1L));
+        assertThrows(UpstreamUnavailableException.class, () -> service.getBookById(1L));
+    }
+
+    @Test
+    void getBookById_staleWhileRevalidate_doesNotWaitForRefresh() throws Exception {
+        StaleOnErrorBookService service = new StaleOnErrorBookService(delegate, refreshExecutor, 100, 0, 60000,
+                60000);
+        BookDto refreshed = new BookDto(1L, "Title 1", "Another Author");
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getBookById(1L)).thenReturn(bookDto1).thenAnswer(invocation -> {
+            release.await();
+            return refreshed;
+        });
+
+        service.getBookById(1L);
+        Thread.sleep(5);
+
+        assertSame(bookDto1, service.getBookById(1L));
+        assertSame(bookDto1, service.getBookById(1L));
+        assertFalse(Staleness.current().isRevalidationFailed());
+        assertEquals(2, service.getServedWhileRevalidatingCount());
+
+
+        release.countDown();
+        refreshExecutor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+        verify(delegate, times(2)).getBookById(1L);
+        assertSame(refreshed, service.getBookById(1L));
+    }
+
+    @Test
+    void updateBookWithId_dropsStoredBookAndLists() {
+        StaleOnErrorBookService service = new StaleOnErrorBookService(delegate, refreshExecutor, 100, 60000, 0,
+                60000);
+        when(delegate.getBookById(1L)).thenReturn(bookDto1);
+        when(delegate.getAllBooksByAuthor("Author 1")).thenReturn(Set.of(bookDto1));
+        service.getBookById(1L);
+        service.getAllBooksByAuthor("Author 1");
+
+        service.updateBookWithId(1L, new CreateOrUpdateBookDto("Title 1", "Another Author"));
+        service.getBookById(1L);
+        service.getAllBooksByAuthor("Author 1");
+
+        verify(delegate, times(2)).getBookById(1L);
+        verify(delegate, times(2)).getAllBooksByAuthor("Author 1");
+    }
+
+    @Test
+    void getBookById_revalidation_skipsDelegateAndKeepsUpstreamAge() throws Exception {
+        StaleOnErrorBookService service = new StaleOnErrorBookService(delegate, revalidator, refreshExecutor, 100, 0,
+                60000, 60000);
+        BookDto refreshed = new BookDto(1L, "Title 1", "Another Author");
+        when(delegate.getBookById(1L)).thenReturn(bookDto1);
+        when(revalidator.getBookById(1L)).thenReturn(refreshed);
+
+        service.getBookById(1L);
+        Thread.sleep(5);
+        assertSame(bookDto1, service.getBookById(1L));
+        refreshExecutor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+
+        assertSame(refreshed, service.getBookById(1L));
+        verify(delegate, times(1)).getBookById(1L);
+        verify(revalidator, atLeastOnce()).getBookById(1L);
+    }
+
+    @Test
+    void warm_snapshotBookIsServedStaleWhileRevalidating() throws Exception {
+        StaleOnErrorBookService service = new StaleOnErrorBookService(delegate, revalidator, refreshExecutor, 100,
+                30000, 5000, 60000);
+        BookDto refreshed = new BookDto(1L, "Title 1", "Another Author");
+        when(revalidator.getBookById(1L)).thenReturn(refreshed);
+        long hourAgo = System.currentTimeMillis() - 3600000;
+        service.warm(new BookSnapshotFile.Snapshot(List.of(new BookSnapshotFile.Entry(bookDto1, hourAgo)), hourAgo,
+                false), 86400000);
+
+        assertSame(bookDto1, service.getBookById(1L));
+        assertFalse(Staleness.current().isRevalidationFailed());
+        assertTrue(Staleness.current().getAgeMillis() >= 3600000);
+        refreshExecutor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+
+        assertSame(refreshed, service.getBookById(1L));
+        verify(delegate, never()).getBookById(1L);
+    }
+
+    @Test
+    void updateBookWithId_duringRefresh_refreshDoesNotRestoreOldBook() throws Exception {
+        StaleOnErrorBookService service = new StaleOnErrorBookService(delegate, revalidator, refreshExecutor, 100, 0,
+                60000, 60000);
+        BookDto updated = new BookDto(1L, "Title 1", "Another Author");
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getBookById(1L)).thenReturn(bookDto1, updated);
+        when(revalidator.getBookById(1L)).thenAnswer(invocation -> {
+            refreshStarted.countDown();
+            release.await();
+            return bookDto1;
+        });
+
+        service.getBookById(1L);
+        Thread.sleep(5);
+        service.getBookById(1L);
+        assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+
+        service.updateBookWithId(1L, new CreateOrUpdateBookDto("Title 1", "Another Author"));
+        release.countDown();
+        refreshExecutor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+
+        assertSame(updated, service.getBookById(1L));
+    }
+}
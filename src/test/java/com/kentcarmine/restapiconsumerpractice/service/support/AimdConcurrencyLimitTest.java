@@ -0,0 +1,51 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AimdConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(1000);
+
+    @Test
+    void tryAcquire_overLimit_isShed() {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(2, 1, 10, 500, 0.5);
+
+        assertEquals(1, limit.tryAcquire());
+        assertEquals(2, limit.tryAcquire());
+        assertEquals(-1, limit.tryAcquire());
+
+        assertEquals(2, limit.getInFlight());
+        assertEquals(1, limit.getShedCount());
+    }
+
+    @Test
+    void release_fastWhileBusy_raisesLimit() {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(4, 1, 5, 500, 0.5);
+
+        limit.release(FAST, limit.tryAcquire() + 1, false);
+        assertEquals(5, limit.getLimit());
+        limit.release(FAST, limit.tryAcquire() + 4, false);
+        assertEquals(5, limit.getLimit());
+
+        // One request in flight out of five is not enough use to justify growing
+        AimdConcurrencyLimit idle = new AimdConcurrencyLimit(5, 1, 10, 500, 0.5);
+        idle.release(FAST, idle.tryAcquire(), false);
+        assertEquals(5, idle.getLimit());
+    }
+
+    @Test
+    void release_slowOrOverloaded_cutsLimitDownToMin() {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(8, 3, 10, 500, 0.5);
+
+        limit.release(SLOW, limit.tryAcquire(), false);
+        assertEquals(4, limit.getLimit());
+        limit.release(FAST, limit.tryAcquire(), true);
+        assertEquals(3, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+}
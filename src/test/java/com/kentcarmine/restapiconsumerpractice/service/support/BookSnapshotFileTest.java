@@ -0,0 +1,70 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSnapshotFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void write_thenRead_roundTrips() throws Exception {
+        BookSnapshotFile file = new BookSnapshotFile(dir.resolve("snapshots/books.snapshot"));
+        List<BookDto> books = List.of(new BookDto(1L, "Title 1", "Author 1"),
+                new BookDto(2L, "Ναυσικά", null));
+
+        file.write(books, 1234L, true);
+        BookSnapshotFile.Snapshot snapshot = file.read();
+
+        assertEquals(1234L, snapshot.getTakenAtMillis());
+        assertTrue(snapshot.isComplete());
+        assertEquals(2, snapshot.getBooks().size());
+        BookDto second = snapshot.getBooks().get(1);
+        assertEquals(2L, second.getId());
+        assertEquals("Ναυσικά", second.getTitle());
+        assertNull(second.getAuthor());
+        assertFalse(Files.exists(dir.resolve("snapshots/books.snapshot.tmp")));
+    }
+
+    @Test
+    void write_entries_keepsEachFetchTime() throws Exception {
+        BookSnapshotFile file = new BookSnapshotFile(dir.resolve("books.snapshot"));
+
+        file.write(List.of(new BookSnapshotFile.Entry(new BookDto(1L, "Title 1", "Author 1"), 1000L),
+                new BookSnapshotFile.Entry(new BookDto(2L, "Title 2", "Author 2"), 2000L)), 3000L, false);
+        BookSnapshotFile.Snapshot snapshot = file.read();
+
+        assertEquals(1000L, snapshot.getEntries().get(0).getFetchedAtMillis());
+        assertEquals(2000L, snapshot.getEntries().get(1).getFetchedAtMillis());
+        assertEquals(3000L, snapshot.getTakenAtMillis());
+    }
+
+    @Test
+    void read_missingFile_returnsNull() throws Exception {
+        assertNull(new BookSnapshotFile(dir.resolve("books.snapshot")).read());
+    }
+
+    @Test
+    void read_corruptedFile_failsChecksum() throws Exception {
+        Path path = dir.resolve("books.snapshot");
+        BookSnapshotFile file = new BookSnapshotFile(path);
+        file.write(List.of(new BookDto(1L, "Title 1", "Author 1")), 1234L, false);
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x20;
+        Files.write(path, bytes);
+        assertThrows(IOException.class, file::read);
+
+        Files.write(path, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, file::read);
+    }
+}
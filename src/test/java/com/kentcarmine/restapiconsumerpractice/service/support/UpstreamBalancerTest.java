@@ -0,0 +1,118 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import com.kentcarmine.restapiconsumerpractice.dto.BookDto;
+import com.kentcarmine.restapiconsumerpractice.loadtest.StubUpstreamServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamBalancerTest {
+
+    private static final String LOGICAL_ROOT = "http://localhost:8080";
+
+    List<StubUpstreamServer> upstreams;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstreams = Arrays.asList(new StubUpstreamServer(10), new StubUpstreamServer(10),
+                new StubUpstreamServer(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstreams.forEach(StubUpstreamServer::close);
+    }
+
+    @Test
+    void roundRobin_spreadsRequestsEvenly() {
+        RestTemplate restTemplate = restTemplate(balancer(BalancingStrategy.ROUND_ROBIN, 5));
+
+        for (int i = 0; i < 30; i++) {
+            assertEquals(1L, restTemplate.getForObject(LOGICAL_ROOT + "/api/v1/books/1", BookDto.class).getId());
+        }
+
+        for (StubUpstreamServer upstream : upstreams) {
+            assertEquals(10, upstream.getRequestCount());
+        }
+    }
+
+    @Test
+    void failingInstance_isEjected() {
+        upstreams.get(1).withErrorRate(1.0);
+        UpstreamBalancer balancer = balancer(BalancingStrategy.ROUND_ROBIN, 3);
+        RestTemplate restTemplate = restTemplate(balancer);
+
+        for (int i = 0; i < 30; i++) {
+            try {
+                restTemplate.getForObject(LOGICAL_ROOT + "/api/v1/books/1", BookDto.class);
+            } catch (HttpServerErrorException e) {
+                // expected while the failing instance is still in rotation
+            }
+        }
+
+        assertEquals(3, upstreams.get(1).getRequestCount());
+        assertFalse(balancer.getInstances().get(1).isHealthy());
+        assertEquals(1, balancer.getInstances().get(1).getEjectionCount());
+        assertEquals(27, upstreams.get(0).getRequestCount() + upstreams.get(2).getRequestCount());
+    }
+
+    @Test
+    void ewma_prefersFasterInstance() {
+        upstreams.get(0).withLatencyMs(40);
+        UpstreamBalancer balancer = new UpstreamBalancer(LOGICAL_ROOT,
+                Arrays.asList(upstreams.get(0).getRootUrl(), upstreams.get(1).getRootUrl()), BalancingStrategy.EWMA,
+                5, 10000);
+        RestTemplate restTemplate = restTemplate(balancer);
+
+        for (int i = 0; i < 20; i++) {
+            restTemplate.getForObject(LOGICAL_ROOT + "/api/v1/books/1", BookDto.class);
+        }
+
+        assertTrue(upstreams.get(1).getRequestCount() > 3 * upstreams.get(0).getRequestCount(),
+                "fast " + upstreams.get(1).getRequestCount() + ", slow " + upstreams.get(0).getRequestCount());
+    }
+
+    @Test
+    void bindTo_registersPerInstanceMeters() {
+        UpstreamBalancer balancer = balancer(BalancingStrategy.LEAST_OUTSTANDING, 5);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        balancer.bindTo(meterRegistry);
+
+        restTemplate(balancer).getForObject(LOGICAL_ROOT + "/api/v1/books/1", BookDto.class);
+
+        double requests = 0;
+        for (UpstreamInstance instance : balancer.getInstances()) {
+            requests += meterRegistry.get("restapipractice.upstream.instance.requests")
+                    .tag("instance", instance.getName())
+                    .functionCounter()
+                    .count();
+            assertEquals(1, meterRegistry.get("restapipractice.upstream.instance.healthy")
+                    .tag("instance", instance.getName())
+                    .gauge()
+                    .value());
+        }
+        assertEquals(1, requests);
+    }
+
+    private UpstreamBalancer balancer(BalancingStrategy strategy, int failureThreshold) {
+        return new UpstreamBalancer(LOGICAL_ROOT,
+                Arrays.asList(upstreams.get(0).getRootUrl(), upstreams.get(1).getRootUrl(),
+                        upstreams.get(2).getRootUrl()),
+                strategy, failureThreshold, 60000);
+    }
+
+    private static RestTemplate restTemplate(UpstreamBalancer balancer) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(balancer.requestInterceptor());
+        return restTemplate;
+    }
+}
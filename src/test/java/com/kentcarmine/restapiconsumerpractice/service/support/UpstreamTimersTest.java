@@ -0,0 +1,54 @@
+package com.kentcarmine.restapiconsumerpractice.service.support;
+
+import com.kentcarmine.restapiconsumerpractice.service.UpstreamOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamTimersTest {
+
+    SimpleMeterRegistry meterRegistry;
+
+    UpstreamTimers upstreamTimers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        upstreamTimers = new UpstreamTimers(meterRegistry);
+    }
+
+    @Test
+    void exchange_tagsResponseStatus() {
+        upstreamTimers.exchange(UpstreamOperation.CREATE, () -> ResponseEntity.status(HttpStatus.CREATED).body("book"));
+        upstreamTimers.exchange(UpstreamOperation.CREATE, () -> ResponseEntity.status(HttpStatus.CREATED).body("book"));
+
+        assertEquals(2, count("create", "201"));
+    }
+
+    @Test
+    void exchange_tagsFailuresAndRethrows() {
+        assertThrows(HttpClientErrorException.class, () -> upstreamTimers.exchange(UpstreamOperation.FIND_BY_ID,
+                () -> { throw new HttpClientErrorException(HttpStatus.NOT_FOUND); }));
+        assertThrows(ResourceAccessException.class, () -> upstreamTimers.exchange(UpstreamOperation.FIND_BY_ID,
+                () -> { throw new ResourceAccessException("refused", new IOException()); }));
+
+        assertEquals(1, count("findById", "404"));
+        assertEquals(1, count("findById", "IO_ERROR"));
+    }
+
+    private long count(String operation, String status) {
+        return meterRegistry.get(UpstreamTimers.METRIC_NAME)
+                .tag("operation", operation)
+                .tag("status", status)
+                .timer()
+                .count();
+    }
+}